@@ -0,0 +1,157 @@
+package edu.uob;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Hot paths of OXOController on square boards of a few representative sizes, thresholds and numbers of players.
+// Each combination takes a couple of minutes, so the defaults are kept to 12 (including 3x3 with a threshold of 5,
+// where the threshold is larger than the board and there is never a winner). Other points, or the full sweep of
+// sizes and thresholds 3 to 9 with 2 to 6 players (245 combinations, about 10 hours), are picked with -p, e.g.
+// -Djmh.args="OXOControllerBenchmark -p size=3,4,5,6,7,8,9 -p threshold=3,4,5,6,7,8,9 -p players=2,3,4,5,6"
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OXOControllerBenchmark {
+    private static final int GAMES = 64;
+    private static final char[] LETTERS = {'X', 'O', 'A', 'B', 'C', 'D'};
+
+    @Param({"3", "5", "9"})
+    public int size;
+
+    @Param({"3", "5"})
+    public int threshold;
+
+    @Param({"2", "4"})
+    public int players;
+
+    private OXOModel model;
+    private OXOController controller;
+    // Random games played one move per call: every game is a shuffled list of every cell on the board
+    private String[][] games;
+    private int game;
+    private int move;
+    // A half full board (with no winner) used by the win, draw and resize benchmarks
+    private OXOModel midGame;
+    private OXOController midGameController;
+    private int lastRow;
+    private int lastColumn;
+
+    @Setup
+    public void setup() {
+        model = createModel();
+        controller = new OXOController(model);
+
+        Random random = new Random(size * 100L + threshold * 10L + players);
+        ArrayList<String> cells = new ArrayList<String>();
+        for(int i = 0; i < size; i++){
+            for(int j = 0; j < size; j++){
+                cells.add("" + (char)('a' + i) + (char)('1' + j));
+            }
+        }
+        games = new String[GAMES][];
+        for(int i = 0; i < GAMES; i++){
+            Collections.shuffle(cells, random);
+            games[i] = cells.toArray(new String[0]);
+        }
+
+        midGame = createModel();
+        midGameController = new OXOController(midGame);
+        // Cells are claimed straight on the model so that the game is never won and resizing stays allowed
+        for(int i = 0; i < games[0].length / 2; i++){
+            lastRow = games[0][i].charAt(0) - 'a';
+            lastColumn = games[0][i].charAt(1) - '1';
+            midGame.setCellOwner(lastRow, lastColumn, midGame.getPlayerByNumber(i % players));
+        }
+    }
+
+    private OXOModel createModel() {
+        OXOModel created = new OXOModel(size, size, threshold);
+        for(int i = 0; i < players; i++){
+            created.addPlayer(new OXOPlayer(LETTERS[i]));
+        }
+        return created;
+    }
+
+    @Benchmark
+    public OXOPlayer handleIncomingCommand() throws OXOMoveException {
+        if(model.getWinner() != null || model.isGameDrawn() || move == games[game].length){
+            controller.reset();
+            game = (game + 1) % GAMES;
+            move = 0;
+        }
+        controller.handleIncomingCommand(games[game][move++]);
+        return model.getWinner();
+    }
+
+    // A move onto a claimed cell of the half played game, reported by exception and by result code
+    @Benchmark
+    public OXOMoveException rejectedMoveException() {
+        try {
+            midGameController.handleIncomingCommand(games[0][0]);
+            return null;
+        } catch (OXOMoveException exception) {
+            return exception;
+        }
+    }
+
+    @Benchmark
+    public OXOMoveResult rejectedMoveResult() {
+        return midGameController.tryMove(games[0][0]);
+    }
+
+    @Benchmark
+    public boolean winAroundLastMove() {
+        return midGame.completesLine(midGame.getCellOwner(lastRow, lastColumn), lastRow, lastColumn);
+    }
+
+    @Benchmark
+    public OXOPlayer winWholeBoard() {
+        return midGame.findLineOwner();
+    }
+
+    @Benchmark
+    public boolean drawDetection() {
+        return midGameController.checkGameStart() | midGameController.checkDrawRemoveRow() | midGameController.checkDrawRemoveColumn() | midGame.isBoardFull();
+    }
+
+    @Benchmark
+    public int resizeRows() {
+        midGameController.addRow();
+        midGameController.removeRow();
+        return midGame.getNumberOfRows();
+    }
+
+    @Benchmark
+    public int resizeColumns() {
+        midGameController.addColumn();
+        midGameController.removeColumn();
+        return midGame.getNumberOfColumns();
+    }
+
+    // Claims the same cells as the half played game and then clears them again
+    @Benchmark
+    public OXOPlayer reset() {
+        for(int i = 0; i < games[0].length / 2; i++){
+            model.setCellOwner(games[0][i].charAt(0) - 'a', games[0][i].charAt(1) - '1', model.getPlayerByNumber(i % players));
+        }
+        controller.reset();
+        return model.getWinner();
+    }
+}
@@ -0,0 +1,169 @@
+package edu.uob;
+
+import java.util.Arrays;
+
+// Dense storage for boards up to 9x9: cell [row,col] is bit (row * STRIDE + col) of a 128 bit mask
+// held as a low and a high long, with one mask per player slot plus one for all occupied cells
+public class OXOBitBoard implements OXOBoard {
+    public static final int MAX_SIZE = 9;
+    public static final int STRIDE = 9;
+
+    private int rows;
+    private int columns;
+    private long[] lowMasks = new long[2];
+    private long[] highMasks = new long[2];
+    private long occupiedLow;
+    private long occupiedHigh;
+
+    public OXOBitBoard(int numberOfRows, int numberOfColumns) {
+        if(numberOfRows > MAX_SIZE || numberOfColumns > MAX_SIZE) {
+            throw new IllegalArgumentException("Board of " + numberOfRows + "x" + numberOfColumns + " is too large for a bitboard");
+        }
+        rows = numberOfRows;
+        columns = numberOfColumns;
+    }
+
+    public boolean supports(int numberOfRows, int numberOfColumns) {
+        return numberOfRows <= MAX_SIZE && numberOfColumns <= MAX_SIZE;
+    }
+
+    public int getNumberOfRows() {
+        return rows;
+    }
+
+    public int getNumberOfColumns() {
+        return columns;
+    }
+
+    public int getNumberOfSlots() {
+        return lowMasks.length;
+    }
+
+    public long getLowMask(int slot) {
+        return slot < lowMasks.length ? lowMasks[slot] : 0L;
+    }
+
+    public long getHighMask(int slot) {
+        return slot < highMasks.length ? highMasks[slot] : 0L;
+    }
+
+    public long getOccupiedLow() {
+        return occupiedLow;
+    }
+
+    public long getOccupiedHigh() {
+        return occupiedHigh;
+    }
+
+    public int getOwner(int rowNumber, int colNumber) {
+        checkBounds(rowNumber, colNumber);
+        int bit = rowNumber * STRIDE + colNumber;
+        if(bit < 64) {
+            long mask = 1L << bit;
+            if((occupiedLow & mask) == 0) return EMPTY;
+            for(int slot = 0; slot < lowMasks.length; slot++) {
+                if((lowMasks[slot] & mask) != 0) return slot;
+            }
+        } else {
+            long mask = 1L << (bit - 64);
+            if((occupiedHigh & mask) == 0) return EMPTY;
+            for(int slot = 0; slot < highMasks.length; slot++) {
+                if((highMasks[slot] & mask) != 0) return slot;
+            }
+        }
+        return EMPTY;
+    }
+
+    public boolean isEmpty(int rowNumber, int colNumber) {
+        checkBounds(rowNumber, colNumber);
+        int bit = rowNumber * STRIDE + colNumber;
+        if(bit < 64) return (occupiedLow & (1L << bit)) == 0;
+        return (occupiedHigh & (1L << (bit - 64))) == 0;
+    }
+
+    public void setOwner(int rowNumber, int colNumber, int slot) {
+        checkBounds(rowNumber, colNumber);
+        if(slot >= lowMasks.length) {
+            lowMasks = Arrays.copyOf(lowMasks, slot + 1);
+            highMasks = Arrays.copyOf(highMasks, slot + 1);
+        }
+        int bit = rowNumber * STRIDE + colNumber;
+        if(bit < 64) {
+            long mask = 1L << bit;
+            for(int i = 0; i < lowMasks.length; i++) lowMasks[i] &= ~mask;
+            if(slot == EMPTY) {
+                occupiedLow &= ~mask;
+            } else {
+                lowMasks[slot] |= mask;
+                occupiedLow |= mask;
+            }
+        } else {
+            long mask = 1L << (bit - 64);
+            for(int i = 0; i < highMasks.length; i++) highMasks[i] &= ~mask;
+            if(slot == EMPTY) {
+                occupiedHigh &= ~mask;
+            } else {
+                highMasks[slot] |= mask;
+                occupiedHigh |= mask;
+            }
+        }
+    }
+
+    // Cells outside the current dimensions are always kept clear, so growing the board only moves the edge
+    public void addRow() {
+        if(!supports(rows + 1, columns)) throw new IllegalStateException("Bitboard cannot grow beyond " + MAX_SIZE + " rows");
+        rows++;
+    }
+
+    public void addColumn() {
+        if(!supports(rows, columns + 1)) throw new IllegalStateException("Bitboard cannot grow beyond " + MAX_SIZE + " columns");
+        columns++;
+    }
+
+    public void removeRow() {
+        for(int i = 0; i < columns; i++) setOwner(rows - 1, i, EMPTY);
+        rows--;
+    }
+
+    public void removeColumn() {
+        for(int i = 0; i < rows; i++) setOwner(i, columns - 1, EMPTY);
+        columns--;
+    }
+
+    public void clear() {
+        Arrays.fill(lowMasks, 0L);
+        Arrays.fill(highMasks, 0L);
+        occupiedLow = 0L;
+        occupiedHigh = 0L;
+    }
+
+    // Only the masks are copied: two longs per player
+    public OXOBoard copy() {
+        OXOBitBoard copy = new OXOBitBoard(rows, columns);
+        copy.lowMasks = lowMasks.clone();
+        copy.highMasks = highMasks.clone();
+        copy.occupiedLow = occupiedLow;
+        copy.occupiedHigh = occupiedHigh;
+        return copy;
+    }
+
+    // Walks out from the cell only, so a line elsewhere on the board does not count
+    public boolean hasLineThrough(int slot, int rowNumber, int colNumber, int threshold) {
+        if(getOwner(rowNumber, colNumber) != slot) return false;
+        return OXOWinDetector.hasLineThrough(getLowMask(slot), getHighMask(slot), rows, columns, threshold, rowNumber * STRIDE + colNumber);
+    }
+
+    public int findLineOwner(int threshold) {
+        return OXOWinDetector.findLineOwner(this, threshold);
+    }
+
+    public long findLineOwners(int threshold) {
+        return OXOWinDetector.findLineOwners(this, threshold);
+    }
+
+    private void checkBounds(int rowNumber, int colNumber) {
+        if(rowNumber < 0 || rowNumber >= rows || colNumber < 0 || colNumber >= columns) {
+            throw new IndexOutOfBoundsException("Cell [" + rowNumber + "," + colNumber + "] is outside the board");
+        }
+    }
+}
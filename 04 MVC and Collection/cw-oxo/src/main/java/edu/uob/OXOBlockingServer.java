@@ -0,0 +1,155 @@
+package edu.uob;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Thread-per-session game server using plain blocking I/O and the same line protocol (and line length limit) as OXOServer.
+// In "virtual" mode every connection gets its own virtual thread, in "platform" mode connections share a fixed
+// pool of platform threads (and wait in the queue when the pool is busy), so the two can be compared under load.
+// Usage: OXOBlockingServer [virtual|platform] [port] [pool size] [rows] [columns] [threshold] [players]
+public class OXOBlockingServer implements Runnable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final int rows;
+    private final int columns;
+    private final int threshold;
+    private final int players;
+    private final AtomicInteger sessions = new AtomicInteger();
+    // Open client sockets, so that stop can close them: interrupting a platform thread does not end a blocked read
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "virtual";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8888;
+        int poolSize = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int rows = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int columns = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+        int threshold = args.length > 5 ? Integer.parseInt(args[5]) : 3;
+        int players = args.length > 6 ? Integer.parseInt(args[6]) : 2;
+
+        ExecutorService executor = mode.equals("platform") ? Executors.newFixedThreadPool(poolSize) : Executors.newVirtualThreadPerTaskExecutor();
+        OXOBlockingServer server = new OXOBlockingServer(port, rows, columns, threshold, players, executor);
+        System.out.println("Server (" + mode + " threads) listening on port " + server.getPort());
+
+        // Report the number of open sessions and roughly how much heap each one is costing
+        Thread reporter = new Thread(() -> {
+            Runtime runtime = Runtime.getRuntime();
+            while(true){
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException exception) {
+                    return;
+                }
+                int open = server.getSessionCount();
+                long used = runtime.totalMemory() - runtime.freeMemory();
+                System.out.printf("%d sessions, %d MB heap used (%.1f KB per session)%n", open, used >> 20, open == 0 ? 0.0 : used / 1024.0 / open);
+            }
+        });
+        reporter.setDaemon(true);
+        reporter.start();
+        server.run();
+    }
+
+    public OXOBlockingServer(int port, int numberOfRows, int numberOfColumns, int winThreshold, int numberOfPlayers, ExecutorService sessionExecutor) throws IOException {
+        rows = numberOfRows;
+        columns = numberOfColumns;
+        threshold = winThreshold;
+        players = numberOfPlayers;
+        executor = sessionExecutor;
+        serverSocket = new ServerSocket(port, 1024);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.get();
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // the accept loop is stopping anyway
+        }
+        for(Socket client : clients) closeQuietly(client);
+        executor.shutdownNow();
+    }
+
+    public void run() {
+        while(running){
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> serve(socket));
+            } catch (IOException exception) {
+                if(running) System.out.println("Could not accept connection: " + exception);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        sessions.incrementAndGet();
+        clients.add(socket);
+        // A session that starts after stop has closed the others is closed here instead
+        if(!running) closeQuietly(socket);
+        try(socket){
+            socket.setTcpNoDelay(true);
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            OutputStream output = socket.getOutputStream();
+            OXOSession session = new OXOSession(rows, columns, threshold, players);
+            // Lines are split by hand, as OXOServer does, so a client that never sends a newline cannot grow the buffer
+            byte[] line = new byte[OXOServer.MAX_LINE_LENGTH];
+            int length = 0;
+            int next;
+            boolean discarding = false;
+            while((next = input.read()) >= 0){
+                if(next == '\n'){
+                    int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+                    // The end of a line that was too long is dropped rather than read as a request of its own
+                    if(discarding) discarding = false;
+                    else reply(output, session.handleLine(line, 0, end));
+                    length = 0;
+                    continue;
+                }
+                line[length++] = (byte) next;
+                if(length == line.length){
+                    length = 0;
+                    if(!discarding) reply(output, OXOServer.LINE_TOO_LONG);
+                    discarding = true;
+                }
+            }
+        } catch (IOException exception) {
+            // the client has gone away, so the session simply ends
+        } finally {
+            clients.remove(socket);
+            sessions.decrementAndGet();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // the session is ending either way
+        }
+    }
+
+    private void reply(OutputStream output, String text) throws IOException {
+        output.write((text + "\n").getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+    }
+}
@@ -0,0 +1,81 @@
+package edu.uob;
+
+// Storage behind OXOModel: cells hold a player slot number, or EMPTY when unclaimed
+public interface OXOBoard {
+    int EMPTY = -1;
+
+    boolean supports(int numberOfRows, int numberOfColumns);
+
+    int getNumberOfRows();
+
+    int getNumberOfColumns();
+
+    int getOwner(int rowNumber, int colNumber);
+
+    void setOwner(int rowNumber, int colNumber, int slot);
+
+    boolean isEmpty(int rowNumber, int colNumber);
+
+    void addRow();
+
+    void addColumn();
+
+    void removeRow();
+
+    void removeColumn();
+
+    void clear();
+
+    // An independent board with the same size and cells
+    OXOBoard copy();
+
+    // Does the run of cells owned by slot that passes through [row,col] reach the threshold in any direction
+    default boolean hasLineThrough(int slot, int rowNumber, int colNumber, int threshold) {
+        return countRun(slot, rowNumber, colNumber, 0, 1) >= threshold
+            || countRun(slot, rowNumber, colNumber, 1, 0) >= threshold
+            || countRun(slot, rowNumber, colNumber, 1, 1) >= threshold
+            || countRun(slot, rowNumber, colNumber, 1, -1) >= threshold;
+    }
+
+    // Whole board query: the owner of any line of the threshold length, or EMPTY if there is none
+    default int findLineOwner(int threshold) {
+        for(int i = 0; i < getNumberOfRows(); i++){
+            for(int j = 0; j < getNumberOfColumns(); j++){
+                int slot = getOwner(i, j);
+                if(slot != EMPTY && hasLineThrough(slot, i, j, threshold)) return slot;
+            }
+        }
+        return EMPTY;
+    }
+
+    // Every player at once: bit s is set if slot s owns a line of the threshold length (slots 64 and up are not checked)
+    default long findLineOwners(int threshold) {
+        long owners = 0;
+        for(int i = 0; i < getNumberOfRows(); i++){
+            for(int j = 0; j < getNumberOfColumns(); j++){
+                int slot = getOwner(i, j);
+                if(slot != EMPTY && slot < 64 && (owners & 1L << slot) == 0 && hasLineThrough(slot, i, j, threshold)) owners |= 1L << slot;
+            }
+        }
+        return owners;
+    }
+
+    private int countRun(int slot, int rowNumber, int colNumber, int rowStep, int colStep) {
+        if(getOwner(rowNumber, colNumber) != slot) return 0;
+        int count = 1;
+        int i = rowNumber + rowStep, j = colNumber + colStep;
+        while(i >= 0 && i < getNumberOfRows() && j >= 0 && j < getNumberOfColumns() && getOwner(i, j) == slot){
+            count++;
+            i += rowStep;
+            j += colStep;
+        }
+        i = rowNumber - rowStep;
+        j = colNumber - colStep;
+        while(i >= 0 && i < getNumberOfRows() && j >= 0 && j < getNumberOfColumns() && getOwner(i, j) == slot){
+            count++;
+            i -= rowStep;
+            j -= colStep;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,86 @@
+package edu.uob;
+
+// An immutable copy of an OXOModel at one moment: the cells (a private copy of the board, see OXOBoard.copy), the
+// players and the state of the game. Snapshots are taken on the thread that changes the model and can then be read
+// from any thread without locks, however the live game moves on.
+public final class OXOBoardSnapshot {
+    private final OXOBoard board;
+    private final OXOPlayer[] players;
+    private final OXOPlayer[] playersBySlot;
+    private final int currentPlayerNumber;
+    private final OXOPlayer winner;
+    private final boolean gameDrawn;
+    private final int winThreshold;
+    private final int filledCells;
+    private final long hash;
+
+    OXOBoardSnapshot(OXOBoard copiedBoard, OXOPlayer[] playersInTurnOrder, OXOPlayer[] playersInSlotOrder, int currentPlayer,
+                     OXOPlayer winningPlayer, boolean drawn, int threshold, int numberOfFilledCells, long positionHash) {
+        board = copiedBoard;
+        players = playersInTurnOrder;
+        playersBySlot = playersInSlotOrder;
+        currentPlayerNumber = currentPlayer;
+        winner = winningPlayer;
+        gameDrawn = drawn;
+        winThreshold = threshold;
+        filledCells = numberOfFilledCells;
+        hash = positionHash;
+    }
+
+    public int getNumberOfRows() {
+        return board.getNumberOfRows();
+    }
+
+    public int getNumberOfColumns() {
+        return board.getNumberOfColumns();
+    }
+
+    public int getNumberOfPlayers() {
+        return players.length;
+    }
+
+    public OXOPlayer getPlayerByNumber(int number) {
+        return players[number];
+    }
+
+    // Board slot of the cell's owner (OXOBoard.EMPTY if it is unclaimed)
+    public int getSlot(int rowNumber, int colNumber) {
+        return board.getOwner(rowNumber, colNumber);
+    }
+
+    public OXOPlayer getPlayerBySlot(int slot) {
+        return slot == OXOBoard.EMPTY ? null : playersBySlot[slot];
+    }
+
+    public OXOPlayer getCellOwner(int rowNumber, int colNumber) {
+        return getPlayerBySlot(board.getOwner(rowNumber, colNumber));
+    }
+
+    public boolean isCellEmpty(int rowNumber, int colNumber) {
+        return board.isEmpty(rowNumber, colNumber);
+    }
+
+    public int getCurrentPlayerNumber() {
+        return currentPlayerNumber;
+    }
+
+    public OXOPlayer getWinner() {
+        return winner;
+    }
+
+    public boolean isGameDrawn() {
+        return gameDrawn;
+    }
+
+    public int getWinThreshold() {
+        return winThreshold;
+    }
+
+    public int getNumberOfFilledCells() {
+        return filledCells;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+}
@@ -2,315 +2,553 @@ package edu.uob;
 
 import edu.uob.OXOMoveException.*;
 
+import java.util.Arrays;
+
 public class OXOController {
+    // Identifiers for every cell of the largest board, so callers can send moves without building strings
+    private static final String[][] CELL_IDENTIFIERS = new String[26][9];
+
+    static {
+        for(int i = 0; i < CELL_IDENTIFIERS.length; i++){
+            for(int j = 0; j < CELL_IDENTIFIERS[i].length; j++){
+                CELL_IDENTIFIERS[i][j] = "" + (char)('a' + i) + (char)('1' + j);
+            }
+        }
+    }
+
+    private static final int DEFAULT_MAXIMUM_BOARD_SIZE = 9;
+    // Enough letters for the row label of any int row
+    private static final int MAXIMUM_ROW_LETTERS = 7;
+
     OXOModel gameModel;
-    private int currentPlayer = 0;
+    private final int maximumBoardSize;
+    // Moves played so far, then any that have been undone and can be redone (up to historySize), each as
+    // row << 32 | column << 16 | mover << 2. Outcomes are not recorded, since a move that is redone is checked again
+    // under the rules of the moment. Changes to the rules or the board size are not recorded either: they throw away
+    // the moves that could be redone, while the moves before them can still be undone. changePly is the ply of the
+    // last such change; undoing a move made before it checks the whole board again, since the earlier position may
+    // hold a line under the new rules.
+    private long[] history = new long[16];
+    private int ply;
+    private int historySize;
+    private int changePly;
+    // Longer identifiers are copied here to be parsed, and the details of the last rejected move are kept so that
+    // handleIncomingCommand can report them
+    private final char[] identifier = new char[32];
+    private int rejectedLength;
+    private char rejectedCharacter;
+    private long rejectedRow;
+    private long rejectedColumn;
 
     public OXOController(OXOModel model) {
-        gameModel = model;
+        this(model, DEFAULT_MAXIMUM_BOARD_SIZE);
     }
 
-    public void handleIncomingCommand(String command) throws OXOMoveException {
-
-        if(gameModel.getWinner() != null){
-            return;
-        };
+    // The largest number of rows or columns that addRow and addColumn will grow the board to
+    public OXOController(OXOModel model, int maximumBoardSize) {
+        gameModel = model;
+        this.maximumBoardSize = maximumBoardSize;
+    }
 
-        if(command.length() != 2) {
-            throw new OXOMoveException.InvalidIdentifierLengthException(command.length());
-        }
+    public static String cellIdentifier(int rowIndex, int colIndex) {
+        if(rowIndex < CELL_IDENTIFIERS.length && colIndex < CELL_IDENTIFIERS[0].length) return CELL_IDENTIFIERS[rowIndex][colIndex];
+        return rowLabel(rowIndex) + (colIndex + 1);
+    }
 
-        if(Character.isLetter(command.charAt(0))==false){
-            RowOrColumn row = RowOrColumn.ROW;
-            throw new OXOMoveException.InvalidIdentifierCharacterException(row, command.charAt(0));
+    // Rows are lettered like spreadsheet columns: a to z, then aa, ab and so on
+    public static String rowLabel(int rowIndex) {
+        char[] letters = new char[MAXIMUM_ROW_LETTERS];
+        int start = letters.length;
+        for(long number = rowIndex + 1L; number > 0; number = (number - 1) / 26){
+            letters[--start] = (char) ('a' + (number - 1) % 26);
         }
+        return new String(letters, start, letters.length - start);
+    }
 
-        if(!(command.charAt(1)>='0' && command.charAt(1)<='9')){
-            RowOrColumn col = RowOrColumn.COLUMN;
-            throw new OXOMoveException.InvalidIdentifierCharacterException(col, command.charAt(1));
-        }
+    public void handleIncomingCommand(String command) throws OXOMoveException {
+        handleIncomingCommand((CharSequence) command);
+    }
 
-        command = command.toUpperCase();
-        int rowIndex = command.charAt(0) - 'A';
-        int colIndex = command.charAt(1) - '1';
+    // The parsers below read the identifier straight from the characters (or ASCII bytes), so a front end can hand
+    // over a view of its buffer and a move is made without creating any objects
+    public void handleIncomingCommand(CharSequence command) throws OXOMoveException {
+        check(tryMove(command));
+    }
 
-        if(rowIndex >= gameModel.getNumberOfRows()){
-            RowOrColumn row = RowOrColumn.ROW;
-            throw new OXOMoveException.OutsideCellRangeException(row, rowIndex+1);
-        }
-        if(colIndex >= gameModel.getNumberOfColumns()){
-            RowOrColumn column = RowOrColumn.COLUMN;
-            throw new OXOMoveException.OutsideCellRangeException(column, colIndex+1);
-        }
+    public void handleIncomingCommand(char[] command, int offset, int length) throws OXOMoveException {
+        check(tryMove(command, offset, length));
+    }
 
-        if(gameModel.getCellOwner(rowIndex, colIndex) != null) {
-            throw new OXOMoveException.CellAlreadyTakenException(rowIndex + 1, colIndex + 1);
-        }
+    public void handleIncomingCommand(byte[] command, int offset, int length) throws OXOMoveException {
+        check(tryMove(command, offset, length));
+    }
 
-        gameModel.setCellOwner(rowIndex, colIndex, gameModel.getPlayerByNumber(currentPlayer));
+    // Same moves as handleIncomingCommand, but a rejected move is reported by the result rather than an exception.
+    // Two character identifiers are decoded directly; longer ones (boards beyond 26 rows or 9 columns) are copied
+    // into a scratch buffer and parsed in one pass
+    public OXOMoveResult tryMove(CharSequence command) {
+        int length = command.length();
+        if(length == 2) return playCell(command.charAt(0), command.charAt(1));
+        if(!fitsIdentifier(length)) return rejectLength(length);
+        for(int i = 0; i < length; i++) identifier[i] = command.charAt(i);
+        return playIdentifier(length);
+    }
 
-        checkWin(gameModel, rowIndex, colIndex);
+    public OXOMoveResult tryMove(char[] command, int offset, int length) {
+        if(length == 2) return playCell(command[offset], command[offset + 1]);
+        if(!fitsIdentifier(length)) return rejectLength(length);
+        System.arraycopy(command, offset, identifier, 0, length);
+        return playIdentifier(length);
+    }
 
-        if(gameModel.getWinner() != null){
-            return;
-        }
+    public OXOMoveResult tryMove(byte[] command, int offset, int length) {
+        if(length == 2) return playCell((char) (command[offset] & 0xFF), (char) (command[offset + 1] & 0xFF));
+        if(!fitsIdentifier(length)) return rejectLength(length);
+        for(int i = 0; i < length; i++) identifier[i] = (char) (command[offset + i] & 0xFF);
+        return playIdentifier(length);
+    }
 
-        checkDraw();
+    // For callers that already have the cell as indices, such as computer players
+    public OXOMoveResult tryMove(int rowIndex, int colIndex) {
+        if(gameModel.getWinner() != null) return OXOMoveResult.GAME_OVER;
+        if(rowIndex < 0 || rowIndex >= gameModel.getNumberOfRows()) return OXOMoveResult.ROW_OUT_OF_RANGE;
+        if(colIndex < 0 || colIndex >= gameModel.getNumberOfColumns()) return OXOMoveResult.COLUMN_OUT_OF_RANGE;
+        return playIndices(rowIndex, colIndex);
+    }
 
-        if(gameModel.isGameDrawn() == true){
-            return;
+    // Turns a rejected move back into the exception it has always been reported with
+    private void check(OXOMoveResult result) throws OXOMoveException {
+        switch(result) {
+            case INVALID_LENGTH: throw new OXOMoveException.InvalidIdentifierLengthException(rejectedLength);
+            case INVALID_ROW_CHARACTER: throw new OXOMoveException.InvalidIdentifierCharacterException(RowOrColumn.ROW, rejectedCharacter);
+            case INVALID_COLUMN_CHARACTER: throw new OXOMoveException.InvalidIdentifierCharacterException(RowOrColumn.COLUMN, rejectedCharacter);
+            case ROW_OUT_OF_RANGE: throw new OXOMoveException.OutsideCellRangeException(RowOrColumn.ROW, clamp(rejectedRow));
+            case COLUMN_OUT_OF_RANGE: throw new OXOMoveException.OutsideCellRangeException(RowOrColumn.COLUMN, clamp(rejectedColumn));
+            case CELL_TAKEN: throw new OXOMoveException.CellAlreadyTakenException(clamp(rejectedRow), clamp(rejectedColumn));
+            default: break;
         }
+    }
 
-        togglePlayer();
-
+    private static int clamp(long number) {
+        return (int) Math.min(number, Integer.MAX_VALUE);
     }
 
+    // Row of a row letter in either case, or -1 if it is not a letter. ASCII is decoded directly; any other letter
+    // is upper-cased and counted from 'A', so it is always out of range rather than invalid
+    private static int rowIndexOf(char character) {
+        if(character >= 'a' && character <= 'z') return character - 'a';
+        if(character >= 'A' && character <= 'Z') return character - 'A';
+        if(character < 128 || !Character.isLetter(character)) return -1;
+        return Character.toUpperCase(character) - 'A';
+    }
 
-    public void addRow() {
+    // Identifiers can be no longer than the one for the bottom right cell
+    private boolean fitsIdentifier(int length) {
+        if(length < 2) return false;
+        int letters = 0, digits = 1;
+        for(long number = gameModel.getNumberOfRows(); number > 0; number = (number - 1) / 26) letters++;
+        for(long power = 10; power <= gameModel.getNumberOfColumns(); power *= 10) digits++;
+        return length <= letters + digits;
+    }
 
-        if(gameModel.isGameDrawn() == true){
-            togglePlayer();
-            resetDraw(gameModel);
-        }
+    private OXOMoveResult rejectLength(int length) {
+        if(gameModel.getWinner() != null) return OXOMoveResult.GAME_OVER;
+        rejectedLength = length;
+        return OXOMoveResult.INVALID_LENGTH;
+    }
 
-        if(gameModel.getNumberOfRows() < 9){
-            gameModel.addRow();
-        }
+    private OXOMoveResult rejectCharacter(OXOMoveResult result, char character) {
+        rejectedCharacter = character;
+        return result;
     }
 
-    public void removeRow() {
+    private OXOMoveResult playCell(char rowCharacter, char colCharacter) {
 
-        if(gameModel.isGameDrawn() == true || gameModel.getWinner() != null || gameModel.getNumberOfRows() == 1 || checkDrawRemoveRow() == true){
-            return;
+        if(gameModel.getWinner() != null){
+            return OXOMoveResult.GAME_OVER;
         };
 
-        for(int i = 0; i < gameModel.getNumberOfColumns(); i++) {
-            if (gameModel.getCellOwner(gameModel.getNumberOfRows() - 1, i) != null && gameModel.getWinner() == null) {
-                return;
-            }
+        int rowIndex = rowIndexOf(rowCharacter);
+        if(rowIndex < 0){
+            return rejectCharacter(OXOMoveResult.INVALID_ROW_CHARACTER, rowCharacter);
         }
 
-        gameModel.removeRow();
+        if(!(colCharacter>='0' && colCharacter<='9')){
+            return rejectCharacter(OXOMoveResult.INVALID_COLUMN_CHARACTER, colCharacter);
+        }
+
+        return playAt(rowIndex, colCharacter - '1');
     }
 
-    public void addColumn() {
+    // Letters for the row (any case) followed by the decimal column number, as in AA12 or c107
+    private OXOMoveResult playIdentifier(int length) {
 
-        if(gameModel.isGameDrawn() == true){
-            togglePlayer();
-            resetDraw(gameModel);
+        if(gameModel.getWinner() != null){
+            return OXOMoveResult.GAME_OVER;
         }
 
-        if(gameModel.getNumberOfColumns() < 9) {
-            gameModel.addColumn();
+        int position = 0;
+        long rowNumber = 0;
+        for(; position < length; position++){
+            char character = identifier[position];
+            int letter = character >= 'a' && character <= 'z' ? character - 'a' : character >= 'A' && character <= 'Z' ? character - 'A' : -1;
+            if(letter < 0) break;
+            // Past the last row more letters only make it larger, so counting stops there (before it can overflow)
+            // and playAt rejects the row once the column has been read
+            if(rowNumber <= gameModel.getNumberOfRows()) rowNumber = rowNumber * 26 + letter + 1;
+        }
+        if(position == 0){
+            return rejectCharacter(OXOMoveResult.INVALID_ROW_CHARACTER, identifier[0]);
+        }
+        if(position == length){
+            return rejectCharacter(OXOMoveResult.INVALID_COLUMN_CHARACTER, identifier[length - 1]);
         }
-    }
 
+        long colNumber = 0;
+        for(; position < length; position++){
+            char character = identifier[position];
+            if(!(character>='0' && character<='9')){
+                return rejectCharacter(OXOMoveResult.INVALID_COLUMN_CHARACTER, character);
+            }
+            if(colNumber <= gameModel.getNumberOfColumns()) colNumber = colNumber * 10 + character - '0';
+        }
 
-    public void removeColumn() {
+        return playAt(rowNumber - 1, colNumber - 1);
+    }
 
-        if(gameModel.isGameDrawn() == true || gameModel.getWinner() != null || gameModel.getNumberOfColumns() == 1 || checkDrawRemoveColumn() == true){
-            return;
-        };
+    private OXOMoveResult playAt(long rowIndex, long colIndex) {
 
+        rejectedRow = rowIndex + 1;
+        rejectedColumn = colIndex + 1;
 
-        for(int i = 0; i < gameModel.getNumberOfRows(); i++){
-            if(gameModel.getCellOwner(i,gameModel.getNumberOfColumns() - 1) != null && gameModel.getWinner() == null){
-                return;
-            }
+        if(rowIndex < 0 || rowIndex >= gameModel.getNumberOfRows()){
+            return OXOMoveResult.ROW_OUT_OF_RANGE;
+        }
+        if(colIndex < 0 || colIndex >= gameModel.getNumberOfColumns()){
+            return OXOMoveResult.COLUMN_OUT_OF_RANGE;
         }
 
-        gameModel.removeColumn();
+        return playIndices((int) rowIndex, (int) colIndex);
     }
 
+    private OXOMoveResult playIndices(int rowIndex, int colIndex) {
 
-    public void increaseWinThreshold() {
+        if(!gameModel.isCellEmpty(rowIndex, colIndex)) {
+            return OXOMoveResult.CELL_TAKEN;
+        }
 
-        gameModel.setWinThreshold(gameModel.getWinThreshold()+1);
+        // The move, the outcome and the change of turn reach the listeners as one event
+        gameModel.beginBatch();
+        try {
+            recordMove(rowIndex, colIndex, gameModel.getCurrentPlayerNumber());
+            return claimCell(rowIndex, colIndex);
+        } finally {
+            gameModel.endBatch();
+        }
     }
 
-    public void decreaseWinThreshold() {
+    // Claims the cell for the player to move, then checks for a win or a draw or passes the turn on
+    private OXOMoveResult claimCell(int rowIndex, int colIndex) {
 
-        if(gameModel.getWinThreshold() == 3){
-            return;
-        }
+        gameModel.setCellOwner(rowIndex, colIndex, gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber()));
 
+        checkWin(gameModel, rowIndex, colIndex);
 
-        if(gameModel.getWinner() != null && checkGameStart() == true){
-            gameModel.setWinThreshold(gameModel.getWinThreshold() - 1);
-            return;
+        if(gameModel.getWinner() != null){
+            return OXOMoveResult.WON;
         }
 
-        if(checkGameStart() == true){
-            return;
+        checkDraw();
+
+        if(gameModel.isGameDrawn() == true){
+            return OXOMoveResult.DRAWN;
         }
 
+        togglePlayer();
+        return OXOMoveResult.MOVE_MADE;
+    }
 
-        gameModel.setWinThreshold(gameModel.getWinThreshold() - 1);
+    // Number of moves played (and not undone) since the last reset
+    public int getPly() {
+        return ply;
+    }
 
+    public boolean canUndo() {
+        return ply > 0;
     }
 
-    public boolean checkGameStart(){
+    // Nothing can be redone once the game is over, which an undo can cause if the threshold has since been lowered
+    public boolean canRedo() {
+        return ply < historySize && gameModel.getWinner() == null && !gameModel.isGameDrawn();
+    }
 
-        for(int i = 0; i < gameModel.getNumberOfRows(); i++){
-            for(int j = 0; j < gameModel.getNumberOfColumns(); j++){
-                if(gameModel.getCellOwner(i,j) != null){
-                    return true;
-                }
+    // Takes back the last move: the cell is emptied and its player is to move again. The game went on after the
+    // earlier position, so it was neither won nor drawn, unless the rules have changed since: then the board is
+    // checked again, as a lowered threshold can leave a line elsewhere that now wins.
+    public boolean undo() {
+        if(!canUndo()) return false;
+        gameModel.beginBatch();
+        try {
+            long entry = history[--ply];
+            gameModel.setCellOwner((int) (entry >>> 32), (int) (entry >>> 16) & 0xFFFF, null);
+            gameModel.setWinner(null);
+            gameModel.resetGameDrawn();
+            gameModel.setCurrentPlayerNumber(moverOf(entry));
+            if(ply < changePly) {
+                checkWholeBoard();
+                // With no line left, the positions before this one (which only have fewer cells) have none either
+                if(gameModel.getWinner() == null) changePly = ply;
             }
+            return true;
+        } finally {
+            gameModel.endBatch();
         }
-        return false;
     }
 
+    // Plays the last undone move again, checking it for a win or a draw as if it were new
+    public boolean redo() {
+        if(!canRedo()) return false;
+        gameModel.beginBatch();
+        try {
+            long entry = history[ply++];
+            gameModel.setCurrentPlayerNumber(moverOf(entry));
+            claimCell((int) (entry >>> 32), (int) (entry >>> 16) & 0xFFFF);
+            return true;
+        } finally {
+            gameModel.endBatch();
+        }
+    }
 
-    public void reset() {
+    // Undoes or redoes moves until exactly the given number of moves have been played, or until redoing stops
+    // because the game is over
+    public void rewindTo(int targetPly) {
+        if(targetPly < 0 || targetPly > historySize) {
+            throw new IllegalArgumentException("Ply " + targetPly + " is outside the history (0 to " + historySize + ")");
+        }
+        gameModel.beginBatch();
+        try {
+            while(ply > targetPly) undo();
+            while(ply < targetPly){
+                if(!redo()) break;
+            }
+        } finally {
+            gameModel.endBatch();
+        }
+    }
 
-        gameModel.setWinner(null);
+    // A new move replaces whatever could have been redone
+    private void recordMove(int rowIndex, int colIndex, int mover) {
+        if(ply == history.length) history = Arrays.copyOf(history, history.length * 2);
+        history[ply++] = ((long) rowIndex << 32) | ((long) colIndex << 16) | ((long) mover << 2);
+        historySize = ply;
+    }
+
+    // Undone moves were made under the old rules or board, so they cannot be redone once either changes
+    private void discardRedo() {
+        historySize = ply;
+    }
+
+    private void boardChanged() {
+        discardRedo();
+        changePly = ply;
+        checkWholeBoard();
+    }
+
+    // checkWin only looks around the last move, so after the rules or the board change every player's lines are
+    // checked again in one pass. If several players now have a line, the one whose move is most recent in the history
+    // wins; players with no moves in the history (cells set on the model directly) come after, in turn order.
+    private void checkWholeBoard() {
+        int players = gameModel.getNumberOfPlayers();
+        if(gameModel.getWinner() != null || players == 0) return;
+        long owners = gameModel.findLineOwners();
+        if(owners == 0) return;
+        int winner = -1;
+        for(int i = ply - 1; i >= 0 && winner < 0; i--){
+            int mover = moverOf(history[i]);
+            if(mover < players && ownsLine(owners, mover)) winner = mover;
+        }
+        for(int number = 0; number < players && winner < 0; number++){
+            if(ownsLine(owners, number)) winner = number;
+        }
+        if(winner < 0) return;
         gameModel.resetGameDrawn();
-        gameModel.setCurrentPlayerNumber(0);
-        this.currentPlayer = 0;
+        gameModel.setCurrentPlayerNumber(winner);
+        gameModel.setWinner(gameModel.getPlayerByNumber(winner));
+    }
+
+    private boolean ownsLine(long owners, int number) {
+        int slot = gameModel.getSlot(gameModel.getPlayerByNumber(number));
+        return slot < 64 && (owners & 1L << slot) != 0;
+    }
+
+    private static int moverOf(long entry) {
+        return (int) (entry >>> 2) & 0x3FFF;
+    }
 
+    public void addRow() {
+        gameModel.beginBatch();
+        try {
+            if(gameModel.isGameDrawn() == true){
+                togglePlayer();
+                resetDraw(gameModel);
+            }
 
-        for(int i = 0; i < gameModel.getNumberOfRows(); i++){
-            for(int j = 0; j < gameModel.getNumberOfColumns(); j++){
-                gameModel.setCellOwner(i , j,null);
+            if(gameModel.getNumberOfRows() < maximumBoardSize){
+                gameModel.addRow();
+                boardChanged();
             }
+        } finally {
+            gameModel.endBatch();
         }
-
-        gameModel.setWinner(null);
     }
 
+    public void removeRow() {
 
-    public void checkWin(OXOModel gameModel, int rowIndex, int colIndex){
-
-        checkWinHorizontal(rowIndex,colIndex);
+        if(gameModel.isGameDrawn() == true || gameModel.getWinner() != null || gameModel.getNumberOfRows() == 1 || checkDrawRemoveRow() == true){
+            return;
+        };
 
-        if(gameModel.getWinner() == null){
-            checkWinVertical(rowIndex, colIndex);
+        if(gameModel.getFilledCellsInRow(gameModel.getNumberOfRows() - 1) != 0){
+            return;
+        }
 
+        gameModel.beginBatch();
+        try {
+            gameModel.removeRow();
+            boardChanged();
+        } finally {
+            gameModel.endBatch();
         }
+    }
 
-        if(gameModel.getWinner() == null){
-            checkWinDiagonal(rowIndex,colIndex);
+    public void addColumn() {
+        gameModel.beginBatch();
+        try {
+            if(gameModel.isGameDrawn() == true){
+                togglePlayer();
+                resetDraw(gameModel);
+            }
+
+            if(gameModel.getNumberOfColumns() < maximumBoardSize) {
+                gameModel.addColumn();
+                boardChanged();
+            }
+        } finally {
+            gameModel.endBatch();
         }
     }
 
 
+    public void removeColumn() {
 
-    private void checkWinDiagonal(int rowIndex, int colIndex) {
+        if(gameModel.isGameDrawn() == true || gameModel.getWinner() != null || gameModel.getNumberOfColumns() == 1 || checkDrawRemoveColumn() == true){
+            return;
+        };
 
-        if (Math.min(gameModel.getNumberOfColumns(), gameModel.getNumberOfRows()) < gameModel.getWinThreshold()) {
+        if(gameModel.getFilledCellsInColumn(gameModel.getNumberOfColumns() - 1) != 0){
             return;
         }
 
-        int i = 0, j = 0;
-        while (rowIndex - i >= 0 && colIndex - i >= 0 && gameModel.getCellOwner(rowIndex - i, colIndex - i) == gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber())){
-            i++;
+        gameModel.beginBatch();
+        try {
+            gameModel.removeColumn();
+            boardChanged();
+        } finally {
+            gameModel.endBatch();
         }
+    }
 
-        while(rowIndex+j<gameModel.getNumberOfRows() && colIndex+j<gameModel.getNumberOfColumns() && gameModel.getCellOwner(rowIndex+j, colIndex+j) == gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber())) {
-            j++;
-        }
 
+    public void increaseWinThreshold() {
 
-        if( j + i - 1>=gameModel.getWinThreshold()) {
-            gameModel.setWinner(gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber()));
-        }
+        changeWinThreshold(gameModel.getWinThreshold()+1);
+    }
+
+    public void decreaseWinThreshold() {
 
-        if (Math.min(gameModel.getNumberOfColumns(), gameModel.getNumberOfRows()) < gameModel.getWinThreshold()) {
+        if(gameModel.getWinThreshold() == 3){
             return;
         }
 
 
-        int l = 0, m = 0;
-        while (rowIndex + l < gameModel.getNumberOfRows() && colIndex - l >= 0 && gameModel.getCellOwner(rowIndex + l, colIndex - l) == gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber())){
-            l++;
+        if(gameModel.getWinner() != null && checkGameStart() == true){
+            changeWinThreshold(gameModel.getWinThreshold() - 1);
+            return;
         }
 
-
-        while(rowIndex - m >= 0 && colIndex + m < gameModel.getNumberOfColumns() && gameModel.getCellOwner(rowIndex - m, colIndex + m) == gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber())) {
-            m++;
+        if(checkGameStart() == true){
+            return;
         }
 
 
-        if(l + m -1>=gameModel.getWinThreshold()) {
-            gameModel.setWinner(gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber()));
-        }
+        changeWinThreshold(gameModel.getWinThreshold() - 1);
 
+    }
 
+    private void changeWinThreshold(int threshold) {
+        gameModel.beginBatch();
+        try {
+            gameModel.setWinThreshold(threshold);
+            boardChanged();
+        } finally {
+            gameModel.endBatch();
+        }
     }
 
+    public boolean checkGameStart(){
 
+        return gameModel.getNumberOfFilledCells() > 0;
+    }
 
-    private void checkWinVertical(int rowIndex, int colIndex) {
-        int i = rowIndex, j = rowIndex;
 
-        while(i>=0 && gameModel.getCellOwner(i, colIndex) == gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber())){
-            i--;
-        }
+    public void reset() {
+        gameModel.beginBatch();
+        try {
+            gameModel.setWinner(null);
+            gameModel.resetGameDrawn();
+            gameModel.setCurrentPlayerNumber(0);
+            ply = 0;
+            historySize = 0;
+            changePly = 0;
 
-        while(j<gameModel.getNumberOfRows() && gameModel.getCellOwner(j,colIndex) == gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber())){
-            j++;
-        }
+            gameModel.clearCells();
 
-        if(j-i-1 >= gameModel.getWinThreshold()){
-            gameModel.setWinner(gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber()));
+            gameModel.setWinner(null);
+        } finally {
+            gameModel.endBatch();
         }
     }
 
-    private void checkWinHorizontal(int rowIndex, int colIndex) {
-        int i = colIndex, j = colIndex;
 
-        while(i>=0 && gameModel.getCellOwner(rowIndex, i) == gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber())){
-            i--;
-        }
+    public void checkWin(OXOModel gameModel, int rowIndex, int colIndex){
 
-        while(j<gameModel.getNumberOfColumns() && gameModel.getCellOwner(rowIndex, j) == gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber())){
-            j++;
-        }
+        OXOPlayer player = gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber());
 
-        if(j-i-1 >= gameModel.getWinThreshold()){
-            gameModel.setWinner(gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber()));
+        if(gameModel.completesLine(player, rowIndex, colIndex)){
+            gameModel.setWinner(player);
         }
     }
 
     private void checkDraw() {
 
-        for(int i = 0; i < gameModel.getNumberOfRows(); i++){
-            for(int j = 0; j < gameModel.getNumberOfColumns(); j++){
-                if(gameModel.getCellOwner(i,j) == null){
-                    return;
-                }
-            }
+        if(gameModel.isBoardFull()){
+            gameModel.setGameDrawn();
         }
-
-        gameModel.setGameDrawn();
-
     }
 
+    // Would the board be full once the last row has gone
     public boolean checkDrawRemoveRow(){
 
-        for(int i = 0; i < gameModel.getNumberOfRows() - 1; i++){
-            for(int j = 0; j < gameModel.getNumberOfColumns(); j++){
-                if(gameModel.getCellOwner(i,j) == null){
-                    return false;
-                }
-            }
-        }
-
-        return true;
+        int lastRow = gameModel.getNumberOfRows() - 1;
+        int filledAbove = gameModel.getNumberOfFilledCells() - gameModel.getFilledCellsInRow(lastRow);
+        return filledAbove == (long) lastRow * gameModel.getNumberOfColumns();
     }
 
     public boolean checkDrawRemoveColumn(){
 
-        for(int i = 0; i < gameModel.getNumberOfRows(); i++){
-            for(int j = 0; j < gameModel.getNumberOfColumns() - 1; j++){
-                if(gameModel.getCellOwner(i,j) == null){
-                    return false;
-                }
-            }
-        }
-
-        return true;
+        int lastColumn = gameModel.getNumberOfColumns() - 1;
+        int filledBefore = gameModel.getNumberOfFilledCells() - gameModel.getFilledCellsInColumn(lastColumn);
+        return filledBefore == (long) gameModel.getNumberOfRows() * lastColumn;
     }
 
 
@@ -322,9 +560,7 @@ public class OXOController {
 
     public void togglePlayer(){
         int number = gameModel.getNumberOfPlayers();
-        currentPlayer = (currentPlayer + 1) % number;
-
-        gameModel.setCurrentPlayerNumber(currentPlayer);
+        gameModel.setCurrentPlayerNumber((gameModel.getCurrentPlayerNumber() + 1) % number);
         
     }
 
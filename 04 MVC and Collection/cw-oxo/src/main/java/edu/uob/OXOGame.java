@@ -21,7 +21,7 @@ public class OXOGame extends Frame implements WindowListener, ActionListener, Mo
     @Serial private static final long serialVersionUID = 4493180057657097249L;
     private static Font FONT = new Font("SansSerif", Font.PLAIN, 14);
 
-    OXOController controller;
+    transient OXOController controller;
     TextField inputBox;
     OXOView view;
 
@@ -31,6 +31,8 @@ public class OXOGame extends Frame implements WindowListener, ActionListener, Mo
         new OXOGame(250, 300);
     }
 
+    // The frame registers itself as a listener on its own components while it is being built
+    @SuppressWarnings("this-escape")
     public OXOGame(int width, int height) {
         super("OXO Board");
         OXOModel model = new OXOModel(3, 3, 3);
@@ -64,7 +66,6 @@ public class OXOGame extends Frame implements WindowListener, ActionListener, Mo
             String command = inputBox.getText();
             inputBox.setText("");
             controller.handleIncomingCommand(command);
-            view.repaint();
         } catch (OXOMoveException exception) {
             System.out.println("Game move exception: " + exception);
         }
@@ -81,26 +82,24 @@ public class OXOGame extends Frame implements WindowListener, ActionListener, Mo
             else if (event.getModifiersEx() == MouseEvent.BUTTON3_DOWN_MASK) controller.removeColumn();
             else controller.addColumn();
         }
-        view.repaint();
     }
 
     public void keyPressed(KeyEvent event) {
         inputBox.setText(inputBox.getText().replace("=",""));
         inputBox.setText(inputBox.getText().replace("-",""));
-        view.repaint();
     }
 
     public void keyReleased(KeyEvent event) {
         inputBox.setText(inputBox.getText().replace("=",""));
         inputBox.setText(inputBox.getText().replace("-",""));
         if (event.getKeyCode() == KeyEvent.VK_ESCAPE) controller.reset();
-        view.repaint();
+        if (event.isControlDown() && event.getKeyCode() == KeyEvent.VK_Z) controller.undo();
+        if (event.isControlDown() && event.getKeyCode() == KeyEvent.VK_Y) controller.redo();
     }
 
     public void keyTyped(KeyEvent event) {
         if (event.getKeyChar() == '=') controller.increaseWinThreshold();
         if (event.getKeyChar() == '-') controller.decreaseWinThreshold();
-        view.repaint();
     }
 
     public void mouseClicked(MouseEvent event) {}
@@ -0,0 +1,81 @@
+package edu.uob;
+
+import java.util.ArrayList;
+
+// Fallback storage for boards that do not fit in a bitboard
+public class OXOGridBoard implements OXOBoard {
+
+    private ArrayList<ArrayList<Integer>> cells;
+
+    public OXOGridBoard(int numberOfRows, int numberOfColumns) {
+        cells = new ArrayList<ArrayList<Integer>>();
+        for(int i = 0; i < numberOfRows; i++){
+            cells.add(new ArrayList<Integer>());
+            for(int j = 0; j < numberOfColumns; j++)
+                cells.get(i).add(EMPTY);
+        }
+    }
+
+    public boolean supports(int numberOfRows, int numberOfColumns) {
+        return true;
+    }
+
+    public int getNumberOfRows() {
+        return cells.size();
+    }
+
+    public int getNumberOfColumns() {
+        return cells.get(0).size();
+    }
+
+    public int getOwner(int rowNumber, int colNumber) {
+        return cells.get(rowNumber).get(colNumber);
+    }
+
+    public void setOwner(int rowNumber, int colNumber, int slot) {
+        cells.get(rowNumber).set(colNumber, slot);
+    }
+
+    public boolean isEmpty(int rowNumber, int colNumber) {
+        return getOwner(rowNumber, colNumber) == EMPTY;
+    }
+
+    public void addRow(){
+        cells.add(new ArrayList<Integer>());
+        for(int i = 0; i < cells.get(0).size(); i++){
+            cells.get(cells.size() - 1).add(EMPTY);
+        }
+    }
+
+    public void addColumn(){
+        for(int i = 0; i < cells.size(); i++){
+            cells.get(i).add(EMPTY);
+        }
+    }
+
+    public void removeRow(){
+        cells.remove(cells.size() - 1);
+    }
+
+    public void removeColumn(){
+        for(int i = 0; i < cells.size(); i++){
+            cells.get(i).remove(cells.get(i).size() - 1);
+        }
+    }
+
+    public void clear() {
+        for(int i = 0; i < cells.size(); i++){
+            for(int j = 0; j < cells.get(i).size(); j++){
+                cells.get(i).set(j, EMPTY);
+            }
+        }
+    }
+
+    public OXOBoard copy() {
+        OXOGridBoard copy = new OXOGridBoard(0, 0);
+        for(int i = 0; i < cells.size(); i++){
+            copy.cells.add(new ArrayList<Integer>(cells.get(i)));
+        }
+        return copy;
+    }
+}
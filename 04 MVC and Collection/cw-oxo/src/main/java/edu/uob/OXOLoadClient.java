@@ -0,0 +1,159 @@
+package edu.uob;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Load generator for the game servers: opens many connections and plays random games on all of them at once.
+// Each thread owns a share of the connections and sends one request to each of them in turn, so thousands of
+// sessions stay open with only a few threads. Reports requests per second and reply latency percentiles.
+// A think time makes every thread pause between rounds, so that most sessions sit idle like real players.
+// Usage: OXOLoadClient [host] [port] [connections] [threads] [requests per connection] [think time ms]
+public class OXOLoadClient {
+    private final String host;
+    private final int port;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8888;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int requests = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+        int thinkMillis = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+        System.out.println(new OXOLoadClient(host, port).run(connections, threads, requests, thinkMillis));
+    }
+
+    public OXOLoadClient(String serverHost, int serverPort) {
+        host = serverHost;
+        port = serverPort;
+    }
+
+    public Result run(int connections, int threads, int requestsPerConnection) throws IOException, InterruptedException {
+        return run(connections, threads, requestsPerConnection, 0);
+    }
+
+    public Result run(int connections, int threads, int requestsPerConnection, int thinkMillis) throws IOException, InterruptedException {
+        ArrayList<ArrayList<Client>> shares = new ArrayList<ArrayList<Client>>();
+        for(int i = 0; i < threads; i++) shares.add(new ArrayList<Client>());
+        try {
+            for(int i = 0; i < connections; i++){
+                shares.get(i % threads).add(new Client(new Socket(host, port), i));
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            ArrayList<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+            long start = System.nanoTime();
+            for(ArrayList<Client> share : shares){
+                futures.add(executor.submit(() -> play(share, requestsPerConnection, thinkMillis)));
+            }
+            executor.shutdown();
+
+            long[] latencies = new long[0];
+            for(Future<long[]> future : futures){
+                long[] part = future.get();
+                int length = latencies.length;
+                latencies = Arrays.copyOf(latencies, length + part.length);
+                System.arraycopy(part, 0, latencies, length, part.length);
+            }
+            return new Result(latencies, System.nanoTime() - start);
+        } catch (ExecutionException exception) {
+            throw new IOException("Load client failed", exception.getCause());
+        } finally {
+            for(ArrayList<Client> share : shares){
+                for(Client client : share) client.socket.close();
+            }
+        }
+    }
+
+    private long[] play(ArrayList<Client> clients, int requestsPerConnection, int thinkMillis) throws IOException, InterruptedException {
+        long[] latencies = new long[clients.size() * requestsPerConnection];
+        int count = 0;
+        for(int request = 0; request < requestsPerConnection; request++){
+            if(request > 0 && thinkMillis > 0) Thread.sleep(thinkMillis);
+            for(Client client : clients){
+                String command = client.nextCommand();
+                long sent = System.nanoTime();
+                client.output.write((command + "\n").getBytes(StandardCharsets.US_ASCII));
+                client.output.flush();
+                String reply = client.input.readLine();
+                latencies[count++] = System.nanoTime() - sent;
+                if(reply == null) throw new IOException("Server closed the connection");
+                if(reply.startsWith("ERROR")) throw new IOException("Server rejected " + command + ": " + reply);
+                client.lastReply = reply;
+            }
+        }
+        return latencies;
+    }
+
+    private static class Client {
+        private final Socket socket;
+        private final BufferedReader input;
+        private final OutputStream output;
+        private final SplittableRandom random;
+        private String lastReply;
+
+        private Client(Socket clientSocket, long seed) throws IOException {
+            socket = clientSocket;
+            socket.setTcpNoDelay(true);
+            input = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            output = socket.getOutputStream();
+            random = new SplittableRandom(seed);
+        }
+
+        // A random empty cell from the last board we were sent, or a reset once the game is over
+        private String nextCommand() {
+            if(lastReply == null) return "board";
+            String[] parts = lastReply.split(" ");
+            if(!parts[5].equals("TURN")) return "reset";
+            String[] rows = parts[4].split("/");
+            ArrayList<String> empty = new ArrayList<String>();
+            for(int i = 0; i < rows.length; i++){
+                for(int j = 0; j < rows[i].length(); j++){
+                    if(rows[i].charAt(j) == '.') empty.add(OXOController.cellIdentifier(i, j));
+                }
+            }
+            return empty.get(random.nextInt(empty.size()));
+        }
+    }
+
+    public static class Result {
+        private final long[] latencies;
+        private final long nanos;
+
+        private Result(long[] requestLatencies, long elapsedNanos) {
+            latencies = requestLatencies;
+            nanos = elapsedNanos;
+            Arrays.sort(latencies);
+        }
+
+        public int getRequests() {
+            return latencies.length;
+        }
+
+        public double getRequestsPerSecond() {
+            return latencies.length / (nanos / 1e9);
+        }
+
+        // Latency in microseconds at the given fraction (0.5 for the median, 0.99 for the 99th percentile)
+        public double getLatencyMicros(double fraction) {
+            if(latencies.length == 0) return 0;
+            int index = Math.min(latencies.length - 1, (int) (fraction * latencies.length));
+            return latencies[index] / 1e3;
+        }
+
+        public String toString() {
+            return String.format("%d requests in %.2f s (%.0f requests/s), latency p50 %.0f us, p99 %.0f us, p99.9 %.0f us, max %.0f us",
+                latencies.length, nanos / 1e9, getRequestsPerSecond(), getLatencyMicros(0.5), getLatencyMicros(0.99), getLatencyMicros(0.999), getLatencyMicros(1.0));
+        }
+    }
+}
@@ -1,21 +1,97 @@
 package edu.uob;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class OXOModel {
 
-    private ArrayList<ArrayList<OXOPlayer>> cells;
+    private OXOBoard board;
     private ArrayList<OXOPlayer> players;
+    // Board slot of every player that has been added, in the order they joined (never shrinks)
+    private ArrayList<OXOPlayer> slots;
     private int currentPlayerNumber;
     private OXOPlayer winner;
     private boolean gameDrawn;
     private int winThreshold;
+    // Live occupancy counts so draw and "is this row empty" checks never have to scan the board
+    private int filledCells;
+    private int[] filledInRow;
+    private int[] filledInColumn;
+    // Zobrist hash of the cells (keyed by slot), the player to move, the board size and the threshold (see OXOZobrist)
+    private long hash;
+    // Whether the board keeps only its claimed cells (see OXOSparseBoard), for very large boards
+    private boolean sparse;
+    // Changes not yet reported to the listeners, and how many batches are open
+    private final ArrayList<OXOModelListener> listeners = new ArrayList<OXOModelListener>();
+    private final OXOModelEvent pending = new OXOModelEvent();
+    private int batchDepth;
+    // Bumped by every change, so the last snapshot can be handed out again until something changes
+    private long version;
+    private OXOBoardSnapshot snapshot;
+    private long snapshotVersion;
 
     public OXOModel(int numberOfRows, int numberOfColumns, int winThresh) {
+        this(numberOfRows, numberOfColumns, winThresh, false);
+    }
+
+    // A sparse model stores only the claimed cells, so its memory grows with the moves played rather than the board area
+    public OXOModel(int numberOfRows, int numberOfColumns, int winThresh, boolean sparseBoard) {
         winThreshold = winThresh;
-        cells = new ArrayList<ArrayList<OXOPlayer>>();
-        initialiseCells(numberOfRows, numberOfColumns);
+        sparse = sparseBoard;
+        createCells(numberOfRows, numberOfColumns);
         players = new ArrayList<OXOPlayer>();
+        slots = new ArrayList<OXOPlayer>();
+    }
+
+    public void addListener(OXOModelListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(OXOModelListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Changes made until the matching endBatch are reported to the listeners as one event. Batches can be nested,
+    // in which case the event is sent when the outermost one ends
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    public void endBatch() {
+        if(--batchDepth == 0) notifyListeners();
+    }
+
+    private void changed(OXOModelEvent.Type type) {
+        version++;
+        if(listeners.isEmpty()) return;
+        pending.add(type);
+        if(batchDepth == 0) notifyListeners();
+    }
+
+    private void cellChanged(OXOModelEvent.Type type, int rowNumber, int colNumber) {
+        version++;
+        if(listeners.isEmpty()) return;
+        pending.addCell(type, rowNumber, colNumber);
+        if(batchDepth == 0) notifyListeners();
+    }
+
+    private void notifyListeners() {
+        if(pending.isEmpty()) return;
+        for(int i = 0; i < listeners.size(); i++){
+            listeners.get(i).modelChanged(pending);
+        }
+        pending.clear();
+    }
+
+    // An immutable copy of the game as it is now, for readers on other threads. Must be called on the thread that
+    // changes the model (a listener is a good place); while nothing changes the same snapshot is returned again.
+    public OXOBoardSnapshot snapshot() {
+        if(snapshot == null || snapshotVersion != version) {
+            snapshot = new OXOBoardSnapshot(board.copy(), players.toArray(new OXOPlayer[0]), slots.toArray(new OXOPlayer[0]),
+                currentPlayerNumber, winner, gameDrawn, winThreshold, filledCells, hash);
+            snapshotVersion = version;
+        }
+        return snapshot;
     }
 
     public int getNumberOfPlayers() {
@@ -24,9 +100,13 @@ public class OXOModel {
 
     public void addPlayer(OXOPlayer player) {
         players.add(player);
+        getSlot(player);
+        changed(OXOModelEvent.Type.PLAYERS_CHANGED);
     }
 
-    public void removePlayer(OXOPlayer player){ players.remove(player); }
+    public void removePlayer(OXOPlayer player){
+        if(players.remove(player)) changed(OXOModelEvent.Type.PLAYERS_CHANGED);
+    }
 
     public OXOPlayer getPlayerByNumber(int number) {
         return players.get(number);
@@ -37,7 +117,9 @@ public class OXOModel {
     }
 
     public void setWinner(OXOPlayer player) {
+        if(winner == player) return;
         winner = player;
+        changed(OXOModelEvent.Type.WINNER_CHANGED);
     }
 
     public int getCurrentPlayerNumber() {
@@ -45,27 +127,96 @@ public class OXOModel {
     }
 
     public void setCurrentPlayerNumber(int playerNumber) {
+        if(currentPlayerNumber == playerNumber) return;
+        hash ^= OXOZobrist.playerKey(currentPlayerNumber) ^ OXOZobrist.playerKey(playerNumber);
         currentPlayerNumber = playerNumber;
+        changed(OXOModelEvent.Type.PLAYER_CHANGED);
     }
 
     public int getNumberOfRows() {
-        return cells.size();
+        return board.getNumberOfRows();
     }
 
     public int getNumberOfColumns() {
-        return cells.get(0).size();
+        return board.getNumberOfColumns();
+    }
+
+    public OXOBoard getBoard() {
+        return board;
+    }
+
+    // Identifies the position in O(1): equal positions (with the same players added in the same order) hash the same
+    public long getHash() {
+        return hash;
+    }
+
+    public int getSlot(OXOPlayer player) {
+        if(player == null) return OXOBoard.EMPTY;
+        for(int i = 0; i < slots.size(); i++){
+            if(slots.get(i) == player) return i;
+        }
+        slots.add(player);
+        return slots.size() - 1;
+    }
+
+    public OXOPlayer getPlayerBySlot(int slot) {
+        return slot == OXOBoard.EMPTY ? null : slots.get(slot);
     }
 
     public OXOPlayer getCellOwner(int rowNumber, int colNumber) {
-        return cells.get(rowNumber).get(colNumber);
+        return getPlayerBySlot(board.getOwner(rowNumber, colNumber));
     }
 
     public void setCellOwner(int rowNumber, int colNumber, OXOPlayer player) {
-        cells.get(rowNumber).set(colNumber,player);
+        int previous = board.getOwner(rowNumber, colNumber);
+        boolean wasEmpty = previous == OXOBoard.EMPTY;
+        int slot = getSlot(player);
+        board.setOwner(rowNumber, colNumber, slot);
+        if(!wasEmpty) hash ^= OXOZobrist.cellKey(previous, rowNumber, colNumber);
+        if(player != null) hash ^= OXOZobrist.cellKey(slot, rowNumber, colNumber);
+        if(wasEmpty && player != null) updateCounts(rowNumber, colNumber, 1);
+        if(!wasEmpty && player == null) updateCounts(rowNumber, colNumber, -1);
+        if(previous != slot) cellChanged(player == null ? OXOModelEvent.Type.CELL_CLEARED : OXOModelEvent.Type.CELL_CLAIMED, rowNumber, colNumber);
+    }
+
+    public int getNumberOfFilledCells() {
+        return filledCells;
+    }
+
+    public int getFilledCellsInRow(int rowNumber) {
+        return filledInRow[rowNumber];
+    }
+
+    public int getFilledCellsInColumn(int colNumber) {
+        return filledInColumn[colNumber];
+    }
+
+    public boolean isBoardFull() {
+        return filledCells == (long) getNumberOfRows() * getNumberOfColumns();
+    }
+
+    public boolean isCellEmpty(int rowNumber, int colNumber) {
+        return board.isEmpty(rowNumber, colNumber);
+    }
+
+    public boolean completesLine(OXOPlayer player, int rowNumber, int colNumber) {
+        return board.hasLineThrough(getSlot(player), rowNumber, colNumber, winThreshold);
+    }
+
+    public OXOPlayer findLineOwner() {
+        return getPlayerBySlot(board.findLineOwner(winThreshold));
+    }
+
+    // Bit s is set if the player in slot s owns a line (see OXOBoard.findLineOwners)
+    public long findLineOwners() {
+        return board.findLineOwners(winThreshold);
     }
 
     public void setWinThreshold(int winThresh) {
+        if(winThreshold == winThresh) return;
+        hash ^= OXOZobrist.thresholdKey(winThreshold) ^ OXOZobrist.thresholdKey(winThresh);
         winThreshold = winThresh;
+        changed(OXOModelEvent.Type.THRESHOLD_CHANGED);
     }
 
     public int getWinThreshold() {
@@ -73,7 +224,9 @@ public class OXOModel {
     }
 
     public void setGameDrawn() {
+        if(gameDrawn) return;
         gameDrawn = true;
+        changed(OXOModelEvent.Type.DRAW_CHANGED);
     }
 
     public boolean isGameDrawn() {
@@ -81,38 +234,109 @@ public class OXOModel {
     }
 
     public void resetGameDrawn(){
+        if(!gameDrawn) return;
         this.gameDrawn = false;
+        changed(OXOModelEvent.Type.DRAW_CHANGED);
     }
 
     public void initialiseCells(int numberOfRows, int numberOfColumns){
-        for(int i=0;i<numberOfRows;i++){
-            cells.add(new ArrayList<OXOPlayer>());
-            for(int j=0;j<numberOfColumns;j++)
-                cells.get(i).add(null);
-        }
+        createCells(numberOfRows, numberOfColumns);
+        changed(OXOModelEvent.Type.RESET);
+    }
+
+    private void createCells(int numberOfRows, int numberOfColumns){
+        board = createBoard(numberOfRows, numberOfColumns);
+        filledCells = 0;
+        filledInRow = new int[Math.max(numberOfRows, 1)];
+        filledInColumn = new int[Math.max(numberOfColumns, 1)];
+        hash = OXOZobrist.emptyBoardKey(numberOfRows, numberOfColumns, winThreshold, currentPlayerNumber);
+    }
+
+    public void clearCells(){
+        board.clear();
+        filledCells = 0;
+        Arrays.fill(filledInRow, 0);
+        Arrays.fill(filledInColumn, 0);
+        hash = OXOZobrist.emptyBoardKey(getNumberOfRows(), getNumberOfColumns(), winThreshold, currentPlayerNumber);
+        changed(OXOModelEvent.Type.RESET);
     }
 
     public void addRow(){
-        cells.add(new ArrayList<OXOPlayer>());
-        for(int i = 0; i < cells.get(0).size(); i++){
-            cells.get(cells.size() - 1).add(null);
+        ensureCapacity(getNumberOfRows() + 1, getNumberOfColumns());
+        hash ^= OXOZobrist.rowsKey(getNumberOfRows()) ^ OXOZobrist.rowsKey(getNumberOfRows() + 1);
+        board.addRow();
+        if(getNumberOfRows() > filledInRow.length){
+            filledInRow = Arrays.copyOf(filledInRow, filledInRow.length * 2);
         }
+        changed(OXOModelEvent.Type.ROW_ADDED);
     }
 
     public void addColumn(){
-        for(int i=0;i<cells.size();i++){
-            cells.get(i).add(null);
+        ensureCapacity(getNumberOfRows(), getNumberOfColumns() + 1);
+        hash ^= OXOZobrist.columnsKey(getNumberOfColumns()) ^ OXOZobrist.columnsKey(getNumberOfColumns() + 1);
+        board.addColumn();
+        if(getNumberOfColumns() > filledInColumn.length){
+            filledInColumn = Arrays.copyOf(filledInColumn, filledInColumn.length * 2);
         }
+        changed(OXOModelEvent.Type.COLUMN_ADDED);
     }
 
     public void removeRow(){
-        cells.remove(cells.size()-1);
+        int lastRow = getNumberOfRows() - 1;
+        for(int i = 0; filledInRow[lastRow] > 0 && i < getNumberOfColumns(); i++){
+            int slot = board.getOwner(lastRow, i);
+            if(slot != OXOBoard.EMPTY) {
+                updateCounts(lastRow, i, -1);
+                hash ^= OXOZobrist.cellKey(slot, lastRow, i);
+            }
+        }
+        hash ^= OXOZobrist.rowsKey(lastRow + 1) ^ OXOZobrist.rowsKey(lastRow);
+        board.removeRow();
+        changed(OXOModelEvent.Type.ROW_REMOVED);
     }
 
     public void removeColumn(){
-        for(int i=0;i<cells.size();i++){
-            cells.get(i).remove(cells.get(i).size()-1);
+        int lastColumn = getNumberOfColumns() - 1;
+        for(int i = 0; filledInColumn[lastColumn] > 0 && i < getNumberOfRows(); i++){
+            int slot = board.getOwner(i, lastColumn);
+            if(slot != OXOBoard.EMPTY) {
+                updateCounts(i, lastColumn, -1);
+                hash ^= OXOZobrist.cellKey(slot, i, lastColumn);
+            }
+        }
+        hash ^= OXOZobrist.columnsKey(lastColumn + 1) ^ OXOZobrist.columnsKey(lastColumn);
+        board.removeColumn();
+        changed(OXOModelEvent.Type.COLUMN_REMOVED);
+    }
+
+    private void updateCounts(int rowNumber, int colNumber, int change) {
+        filledCells += change;
+        filledInRow[rowNumber] += change;
+        filledInColumn[colNumber] += change;
+    }
+
+    private OXOBoard createBoard(int numberOfRows, int numberOfColumns) {
+        if(sparse){
+            return new OXOSparseBoard(numberOfRows, numberOfColumns);
+        }
+        if(numberOfRows <= OXOBitBoard.MAX_SIZE && numberOfColumns <= OXOBitBoard.MAX_SIZE){
+            return new OXOBitBoard(numberOfRows, numberOfColumns);
+        }
+        return new OXOGridBoard(numberOfRows, numberOfColumns);
+    }
+
+    // Move the cells over to a larger kind of storage when the current one cannot grow any further
+    private void ensureCapacity(int numberOfRows, int numberOfColumns) {
+        if(board.supports(numberOfRows, numberOfColumns)){
+            return;
+        }
+        OXOBoard larger = new OXOGridBoard(getNumberOfRows(), getNumberOfColumns());
+        for(int i = 0; i < getNumberOfRows(); i++){
+            for(int j = 0; j < getNumberOfColumns(); j++){
+                larger.setOwner(i, j, board.getOwner(i, j));
+            }
         }
+        board = larger;
     }
 
-}
\ No newline at end of file
+}
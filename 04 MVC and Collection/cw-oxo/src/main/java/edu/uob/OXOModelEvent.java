@@ -0,0 +1,62 @@
+package edu.uob;
+
+import java.util.Arrays;
+
+// What changed in an OXOModel since the last notification: the kinds of change, plus the cells that were claimed or
+// cleared. Once the whole board has changed (a reset or a resize) the individual cells are no longer listed.
+public class OXOModelEvent {
+    public enum Type {
+        CELL_CLAIMED, CELL_CLEARED, ROW_ADDED, ROW_REMOVED, COLUMN_ADDED, COLUMN_REMOVED,
+        THRESHOLD_CHANGED, PLAYER_CHANGED, PLAYERS_CHANGED, WINNER_CHANGED, DRAW_CHANGED, RESET
+    }
+
+    private static final int WHOLE_BOARD = 1 << Type.ROW_ADDED.ordinal() | 1 << Type.ROW_REMOVED.ordinal()
+        | 1 << Type.COLUMN_ADDED.ordinal() | 1 << Type.COLUMN_REMOVED.ordinal() | 1 << Type.RESET.ordinal();
+
+    private int types;
+    // Changed cells packed as row << 32 | column
+    private long[] cells = new long[8];
+    private int numberOfCells;
+
+    public boolean has(Type type) {
+        return (types & 1 << type.ordinal()) != 0;
+    }
+
+    // Whether the board was reset or resized, in which case every cell should be treated as changed
+    public boolean affectsWholeBoard() {
+        return (types & WHOLE_BOARD) != 0;
+    }
+
+    public int getNumberOfCells() {
+        return numberOfCells;
+    }
+
+    public int getRow(int index) {
+        return (int) (cells[index] >>> 32);
+    }
+
+    public int getColumn(int index) {
+        return (int) cells[index];
+    }
+
+    boolean isEmpty() {
+        return types == 0;
+    }
+
+    void add(Type type) {
+        types |= 1 << type.ordinal();
+        if(affectsWholeBoard()) numberOfCells = 0;
+    }
+
+    void addCell(Type type, int rowNumber, int colNumber) {
+        types |= 1 << type.ordinal();
+        if(affectsWholeBoard()) return;
+        if(numberOfCells == cells.length) cells = Arrays.copyOf(cells, cells.length * 2);
+        cells[numberOfCells++] = ((long) rowNumber << 32) | colNumber;
+    }
+
+    void clear() {
+        types = 0;
+        numberOfCells = 0;
+    }
+}
@@ -0,0 +1,9 @@
+package edu.uob;
+
+// Told about every change to an OXOModel it is registered with. Outside a batch each change is reported as it
+// happens; inside one (see OXOModel.beginBatch) the changes are merged and reported once when the batch ends.
+public interface OXOModelListener {
+
+    // The event is reused by the model, so it is only valid until this method returns
+    void modelChanged(OXOModelEvent event);
+}
@@ -0,0 +1,274 @@
+package edu.uob;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Computer player for boards too big to search exhaustively: Monte Carlo tree search with UCT selection and random
+// playouts. Uses root parallelism, so every thread grows its own tree from the same position and the visit counts of
+// the root moves are added up at the end. Trees are flat arrays that are reused from move to move, and playouts run
+// on a scratch OXOPosition with an incremental win check on the last move, so an iteration allocates nothing.
+// Rewards are from the point of view of the player who made the move into a node: 1 for a win and 1/players for a draw.
+// Usage: OXOMonteCarloEngine [rows] [columns] [threshold] [milliseconds] [threads]
+public class OXOMonteCarloEngine implements OXOStrategy {
+    private static final double EXPLORATION = Math.sqrt(2);
+    // Check the clock once every this many iterations
+    private static final int CLOCK_INTERVAL = 64;
+    // Room for the root and a child for every cell of the largest board, so the root can always be expanded
+    public static final int MINIMUM_TREE_SIZE = 1 + OXOBitBoard.MAX_SIZE * OXOBitBoard.MAX_SIZE;
+
+    private final long timeLimitNanos;
+    private final long iterationLimit;
+    private final Tree[] trees;
+    // Null when there is only one thread, which then searches on the caller's thread
+    private final ExecutorService executor;
+    private long lastIterations;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : 9;
+        int threshold = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long millis = args.length > 3 ? Long.parseLong(args[3]) : 5000;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        OXOMonteCarloEngine engine = new OXOMonteCarloEngine(millis, Long.MAX_VALUE, 1 << 20, threads);
+        long start = System.nanoTime();
+        int bit = engine.findBestMove(new OXOPosition(rows, columns, threshold, 2));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Best move %s after %d iterations on %d threads (%.0f iterations/s)%n", OXOController.cellIdentifier(OXOPosition.rowOf(bit), OXOPosition.columnOf(bit)),
+            engine.getLastIterations(), threads, engine.getLastIterations() / seconds);
+        engine.shutdown();
+    }
+
+    public OXOMonteCarloEngine(long timeLimitMillis) {
+        this(timeLimitMillis, Long.MAX_VALUE, 1 << 18, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Stops at whichever comes first of the time limit and the iteration limit (shared between the threads);
+    // each thread's tree holds up to treeSize nodes, after which it only runs playouts from its leaves
+    public OXOMonteCarloEngine(long timeLimitMillis, long maximumIterations, int treeSize, int threads) {
+        if(treeSize < MINIMUM_TREE_SIZE) {
+            throw new IllegalArgumentException("Trees need room for at least " + MINIMUM_TREE_SIZE + " nodes to expand the root");
+        }
+        timeLimitNanos = timeLimitMillis * 1_000_000L;
+        iterationLimit = maximumIterations;
+        trees = new Tree[threads];
+        for(int i = 0; i < threads; i++) trees[i] = new Tree(treeSize, System.nanoTime() ^ (i * 0x9E3779B97F4A7C15L));
+        executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    }
+
+    public void shutdown() {
+        if(executor != null) executor.shutdown();
+    }
+
+    public String chooseMove(OXOModel model) {
+        if(model.getWinner() != null || model.isGameDrawn() || model.isBoardFull()) return null;
+        int bit = findBestMove(OXOPosition.fromModel(model));
+        return bit < 0 ? null : OXOController.cellIdentifier(OXOPosition.rowOf(bit), OXOPosition.columnOf(bit));
+    }
+
+    // The root move with the most visits over all the trees, or -1 if the board is full
+    public int findBestMove(OXOPosition start) {
+        if(start.isFull()) return -1;
+        long deadline = System.nanoTime() + timeLimitNanos;
+        long share = Math.max(1, iterationLimit / trees.length);
+        if(executor == null) {
+            trees[0].search(start, deadline, share);
+        } else {
+            for(Tree tree : trees) tree.stopped = false;
+            ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+            for(Tree tree : trees) futures.add(executor.submit(() -> tree.search(start, deadline, share)));
+            boolean interrupted = false;
+            Throwable failure = null;
+            // The trees are only read (or searched again) once every worker has finished with them; an interrupt
+            // stops the workers early and is passed on afterwards, and the move is picked from the iterations they got through
+            for(int i = 0; i < futures.size(); i++){
+                try {
+                    futures.get(i).get();
+                } catch (InterruptedException exception) {
+                    interrupted = true;
+                    for(Tree tree : trees) tree.stopped = true;
+                    i--;
+                } catch (ExecutionException exception) {
+                    if(failure == null) failure = exception.getCause();
+                    for(Tree tree : trees) tree.stopped = true;
+                }
+            }
+            if(interrupted) Thread.currentThread().interrupt();
+            if(failure != null) throw new IllegalStateException("Monte Carlo search failed", failure);
+        }
+
+        long[] visits = new long[OXOPosition.CELLS];
+        lastIterations = 0;
+        for(Tree tree : trees){
+            tree.addRootVisits(visits);
+            lastIterations += tree.iterations;
+        }
+        int bestMove = -1;
+        for(int bit = 0; bit < visits.length; bit++){
+            if(!start.isEmpty(bit) || OXOPosition.rowOf(bit) >= start.getNumberOfRows() || OXOPosition.columnOf(bit) >= start.getNumberOfColumns()) continue;
+            if(bestMove < 0 || visits[bit] > visits[bestMove]) bestMove = bit;
+        }
+        return bestMove;
+    }
+
+    public long getLastIterations() {
+        return lastIterations;
+    }
+
+    // One thread's search tree. Node 0 is the root and the children of a node sit next to each other in the arrays.
+    private static class Tree {
+        private final int[] moves;
+        private final int[] movers;
+        private final int[] firstChild;
+        private final int[] childCount;
+        private final int[] visits;
+        private final double[] rewards;
+        private final int[] path = new int[OXOPosition.CELLS + 1];
+        private final SplittableRandom random;
+        private OXOPosition scratch;
+        private int size;
+        private long iterations;
+        private volatile boolean stopped;
+
+        private Tree(int capacity, long seed) {
+            moves = new int[capacity];
+            movers = new int[capacity];
+            firstChild = new int[capacity];
+            childCount = new int[capacity];
+            visits = new int[capacity];
+            rewards = new double[capacity];
+            random = new SplittableRandom(seed);
+        }
+
+        private void search(OXOPosition root, long deadline, long limit) {
+            if(scratch == null || scratch.getNumberOfRows() != root.getNumberOfRows() || scratch.getNumberOfColumns() != root.getNumberOfColumns()
+                || scratch.getWinThreshold() != root.getWinThreshold() || scratch.getNumberOfPlayers() != root.getNumberOfPlayers()) {
+                scratch = root.copy();
+            }
+            size = 1;
+            childCount[0] = 0;
+            visits[0] = 0;
+            rewards[0] = 0;
+            iterations = 0;
+            while(iterations < limit && (iterations % CLOCK_INTERVAL != 0 || (System.nanoTime() < deadline && !stopped))){
+                scratch.copyFrom(root);
+                iterate();
+                iterations++;
+            }
+        }
+
+        private void iterate() {
+            int node = 0;
+            int length = 0;
+            path[length++] = node;
+            int winner = OXOBoard.EMPTY;
+            boolean finished = false;
+
+            // Selection: follow the best UCT child down to a leaf
+            while(childCount[node] > 0 && !finished){
+                node = selectChild(node);
+                path[length++] = node;
+                scratch.makeMove(moves[node]);
+                if(scratch.hasLineThrough(movers[node], moves[node])) {
+                    winner = movers[node];
+                    finished = true;
+                } else if(scratch.isFull()) {
+                    finished = true;
+                }
+            }
+
+            // Expansion: a leaf gets its children the second time it is reached (the root straight away)
+            if(!finished && (node == 0 || visits[node] > 0) && expand(node)) {
+                node = firstChild[node];
+                path[length++] = node;
+                scratch.makeMove(moves[node]);
+                if(scratch.hasLineThrough(movers[node], moves[node])) {
+                    winner = movers[node];
+                    finished = true;
+                } else if(scratch.isFull()) {
+                    finished = true;
+                }
+            }
+
+            if(!finished) winner = playout();
+
+            double draw = 1.0 / scratch.getNumberOfPlayers();
+            for(int i = 0; i < length; i++){
+                int visited = path[i];
+                visits[visited]++;
+                if(winner == OXOBoard.EMPTY) rewards[visited] += draw;
+                else if(winner == movers[visited]) rewards[visited] += 1;
+            }
+        }
+
+        private int selectChild(int node) {
+            double logVisits = Math.log(Math.max(1, visits[node]));
+            int best = firstChild[node];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for(int child = firstChild[node]; child < firstChild[node] + childCount[node]; child++){
+                if(visits[child] == 0) return child;
+                double value = rewards[child] / visits[child] + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+                if(value > bestValue){
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        // Adds a child for every empty cell, unless the tree is out of room
+        private boolean expand(int node) {
+            long emptyLow = scratch.getEmptyLow(), emptyHigh = scratch.getEmptyHigh();
+            int count = Long.bitCount(emptyLow) + Long.bitCount(emptyHigh);
+            if(size + count > moves.length) return false;
+            firstChild[node] = size;
+            childCount[node] = count;
+            int mover = scratch.getCurrentPlayer();
+            for(int half = 0; half < 2; half++){
+                long empty = half == 0 ? emptyLow : emptyHigh;
+                while(empty != 0){
+                    moves[size] = Long.numberOfTrailingZeros(empty) + 64 * half;
+                    movers[size] = mover;
+                    childCount[size] = 0;
+                    visits[size] = 0;
+                    rewards[size] = 0;
+                    size++;
+                    empty &= empty - 1;
+                }
+            }
+            return true;
+        }
+
+        // Random moves until someone completes a line (returning them) or the board fills up (returning EMPTY)
+        private int playout() {
+            while(true){
+                long emptyLow = scratch.getEmptyLow(), emptyHigh = scratch.getEmptyHigh();
+                int lowCount = Long.bitCount(emptyLow);
+                int choice = random.nextInt(lowCount + Long.bitCount(emptyHigh));
+                long empty = emptyLow;
+                int base = 0;
+                if(choice >= lowCount) {
+                    choice -= lowCount;
+                    empty = emptyHigh;
+                    base = 64;
+                }
+                for(; choice > 0; choice--) empty &= empty - 1;
+                int bit = Long.numberOfTrailingZeros(empty) + base;
+                int mover = scratch.getCurrentPlayer();
+                scratch.makeMove(bit);
+                if(scratch.hasLineThrough(mover, bit)) return mover;
+                if(scratch.isFull()) return OXOBoard.EMPTY;
+            }
+        }
+
+        private void addRootVisits(long[] totals) {
+            for(int child = firstChild[0]; child < firstChild[0] + childCount[0]; child++){
+                totals[moves[child]] += visits[child];
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package edu.uob;
 
 import java.io.Serial;
 
+// The subclasses keep the details of the problem and only build their message when somebody asks for it,
+// so rejecting a bad move does not have to format a string that is usually never read
 public class OXOMoveException extends Exception {
     @Serial private static final long serialVersionUID = 1;
 
@@ -9,37 +11,67 @@ public class OXOMoveException extends Exception {
         super(message);
     }
 
+    protected OXOMoveException() {
+        super();
+    }
+
     public enum RowOrColumn { ROW, COLUMN }
 
     public static class OutsideCellRangeException extends OXOMoveException {
         @Serial private static final long serialVersionUID = 1;
+        private final RowOrColumn dimension;
+        private final int position;
 
         public OutsideCellRangeException(RowOrColumn dimension, int pos) {
-            super("Position " + pos + " is out of range for " + dimension.name());
+            this.dimension = dimension;
+            position = pos;
+        }
+
+        public String getMessage() {
+            return "Position " + position + " is out of range for " + dimension.name();
         }
     }
 
     public static class InvalidIdentifierLengthException extends OXOMoveException {
         @Serial private static final long serialVersionUID = 1;
+        private final int length;
 
         public InvalidIdentifierLengthException(int length) {
-            super("Identifier of size " + length + " is invalid");
+            this.length = length;
+        }
+
+        public String getMessage() {
+            return "Identifier of size " + length + " is invalid";
         }
     }
 
     public static class InvalidIdentifierCharacterException extends OXOMoveException {
         @Serial private static final long serialVersionUID = 1;
+        private final RowOrColumn problemDimension;
+        private final char character;
 
         public InvalidIdentifierCharacterException(RowOrColumn problemDimension, char character) {
-            super(character + " is not a valid character for a " + problemDimension.name());
+            this.problemDimension = problemDimension;
+            this.character = character;
+        }
+
+        public String getMessage() {
+            return character + " is not a valid character for a " + problemDimension.name();
         }
     }
 
     public static class CellAlreadyTakenException extends OXOMoveException {
         @Serial private static final long serialVersionUID = 1;
+        private final int row;
+        private final int column;
 
         public CellAlreadyTakenException(int row, int column) {
-            super("Cell [" + row + "," + column + "] has already been claimed");
+            this.row = row;
+            this.column = column;
+        }
+
+        public String getMessage() {
+            return "Cell [" + row + "," + column + "] has already been claimed";
         }
     }
 }
@@ -0,0 +1,32 @@
+package edu.uob;
+
+// What OXOController.tryMove (or OXOSharedModel.claim) did with a move. The rejected results match the
+// OXOMoveException subclasses that handleIncomingCommand throws for the same move, apart from WRONG_TURN, which only
+// the shared model can give.
+public enum OXOMoveResult {
+    MOVE_MADE(false),
+    // The move made the player to move the winner
+    WON(false),
+    // The move filled the board without anybody winning
+    DRAWN(false),
+    // Somebody has already won, so the move was ignored
+    GAME_OVER(false),
+    INVALID_LENGTH(true),
+    INVALID_ROW_CHARACTER(true),
+    INVALID_COLUMN_CHARACTER(true),
+    ROW_OUT_OF_RANGE(true),
+    COLUMN_OUT_OF_RANGE(true),
+    CELL_TAKEN(true),
+    // Somebody else is to move
+    WRONG_TURN(true);
+
+    private final boolean rejected;
+
+    OXOMoveResult(boolean isRejected) {
+        rejected = isRejected;
+    }
+
+    public boolean isRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,232 @@
+package edu.uob;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+// Computer player that spreads the OXOSearchEngine search over a ForkJoinPool ("young brothers wait"): at any node
+// with at least SPLIT_DEPTH plies left, the first (best ordered) move is searched on its own to get a good bound, then
+// the rest are searched as parallel tasks that share the node's alpha and stop as soon as one of them causes a cutoff.
+// Below SPLIT_DEPTH every thread runs an ordinary serial search. Each task works on its own OXOPosition copy and all
+// threads share one lock-free transposition table.
+// Usage: OXOParallelSearchEngine [rows] [columns] [threshold] [seconds] [threads]
+public class OXOParallelSearchEngine implements OXOStrategy {
+    private static final int SPLIT_DEPTH = 5;
+    private static final int MAX_DEPTH = OXOPosition.CELLS;
+
+    private final long timeLimitNanos;
+    private final int depthLimit;
+    private final OXOTranspositionTable table;
+    private final ForkJoinPool pool;
+    // One serial engine per pool thread, for the search below the split nodes and for move ordering
+    private final ThreadLocal<OXOSearchEngine> engines;
+
+    private int rootPlayer;
+    private int rootBestMove;
+    private long rules = -1;
+    private int lastDepth;
+    private int lastScore;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int threshold = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : 60;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        OXOParallelSearchEngine engine = new OXOParallelSearchEngine(seconds * 1000, MAX_DEPTH, 24, threads);
+        System.out.println("Searching " + rows + "x" + columns + " (threshold " + threshold + ") for up to " + seconds + " s on " + threads + " threads");
+        long start = System.nanoTime();
+        int bit = engine.findBestMove(new OXOPosition(rows, columns, threshold, 2));
+        String result = Math.abs(engine.getLastScore()) <= OXOSearchEngine.WIN_BOUND ? "unknown" : engine.getLastScore() > 0 ? "first player wins" : "second player wins";
+        if(engine.getLastScore() == 0 && engine.getLastDepth() == rows * columns) result = "draw";
+        System.out.printf("Best move %s, score %d at depth %d (%s) in %.1f s%n", OXOController.cellIdentifier(OXOPosition.rowOf(bit), OXOPosition.columnOf(bit)),
+            engine.getLastScore(), engine.getLastDepth(), result, (System.nanoTime() - start) / 1e9);
+        engine.shutdown();
+    }
+
+    public OXOParallelSearchEngine(long timeLimitMillis) {
+        this(timeLimitMillis, MAX_DEPTH, 22, Runtime.getRuntime().availableProcessors());
+    }
+
+    public OXOParallelSearchEngine(long timeLimitMillis, int maximumDepth, int tableSizeBits, int threads) {
+        timeLimitNanos = timeLimitMillis * 1_000_000L;
+        depthLimit = maximumDepth;
+        table = new OXOTranspositionTable(tableSizeBits);
+        pool = new ForkJoinPool(threads);
+        engines = ThreadLocal.withInitial(() -> new OXOSearchEngine(timeLimitMillis, maximumDepth, table, false));
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public String chooseMove(OXOModel model) {
+        if(model.getWinner() != null || model.isGameDrawn() || model.isBoardFull()) return null;
+        int bit = findBestMove(OXOPosition.fromModel(model));
+        return bit < 0 ? null : OXOController.cellIdentifier(OXOPosition.rowOf(bit), OXOPosition.columnOf(bit));
+    }
+
+    // As OXOSearchEngine.findBestMove, but each iteration of the deepening runs across the whole pool
+    public int findBestMove(OXOPosition start) {
+        rootPlayer = start.getCurrentPlayer();
+        long current = OXOSearchEngine.rulesOf(start, rootPlayer);
+        if(current != rules){
+            rules = current;
+            table.clear();
+        }
+        long deadline = System.nanoTime() + timeLimitNanos;
+        lastDepth = 0;
+
+        int emptyCells = Long.bitCount(start.getEmptyLow()) + Long.bitCount(start.getEmptyHigh());
+        if(emptyCells == 0) return -1;
+        int bestMove = Long.numberOfTrailingZeros(start.getEmptyLow() != 0 ? start.getEmptyLow() : start.getEmptyHigh()) + (start.getEmptyLow() != 0 ? 0 : 64);
+        for(int depth = 1; depth <= Math.min(depthLimit, emptyCells); depth++){
+            Split top = new Split(null, -OXOSearchEngine.INFINITY, OXOSearchEngine.INFINITY, deadline);
+            OXOPosition root = start.copy();
+            int searchDepth = depth;
+            int score = pool.invoke(ForkJoinTask.adapt(() -> search(root, searchDepth, -OXOSearchEngine.INFINITY, OXOSearchEngine.INFINITY, 0, top)));
+            if(top.isStopped()) break;
+            bestMove = rootBestMove;
+            lastScore = score;
+            lastDepth = depth;
+            if(Math.abs(score) > OXOSearchEngine.WIN_BOUND) break;
+        }
+        return bestMove;
+    }
+
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    // Same scores as OXOSearchEngine.search; the result is meaningless once the parent split has stopped
+    private int search(OXOPosition position, int depth, int alpha, int beta, int ply, Split parent) {
+        OXOSearchEngine engine = engines.get();
+        engine.prepare(position, rootPlayer);
+        if(ply > 0 && depth < SPLIT_DEPTH) return engine.searchSubtree(depth, alpha, beta, ply, parent.deadline, parent::isStopped);
+        if(parent.isStopped()) return 0;
+
+        int player = position.getCurrentPlayer();
+        long hash = position.getHash();
+        int tableMove = OXOTranspositionTable.NO_MOVE;
+        long record = table.probe(hash);
+        if(record != 0){
+            tableMove = OXOTranspositionTable.bestMoveOf(record);
+            if(ply > 0 && OXOTranspositionTable.depthOf(record) >= depth){
+                int score = OXOSearchEngine.fromTable(OXOTranspositionTable.scoreOf(record), ply);
+                int bound = OXOTranspositionTable.boundOf(record);
+                if(bound == OXOTranspositionTable.EXACT) return score;
+                if(bound == OXOTranspositionTable.LOWER_BOUND) alpha = Math.max(alpha, score);
+                else beta = Math.min(beta, score);
+                if(alpha >= beta) return score;
+            }
+        }
+
+        // The thread's own per-ply buffers: everything this thread searches before the tasks are made is deeper, and
+        // the list is not read once they have been
+        int[] moves = engine.movesAt(ply);
+        int count = engine.generateMoves(position, tableMove, moves, engine.moveScoresAt(ply));
+        Split split = new Split(parent, alpha, beta, parent.deadline);
+
+        // The eldest brother goes first, on this thread and this position
+        position.makeMove(moves[0]);
+        int score = scoreChild(position, player, moves[0], depth, alpha, beta, ply, split);
+        position.unmakeMove(moves[0]);
+        if(split.isStopped()) return 0;
+        split.offer(score, moves[0]);
+
+        if(count > 1 && !split.isCutOff()){
+            ArrayList<ChildTask> tasks = new ArrayList<ChildTask>(count - 1);
+            for(int i = 1; i < count; i++){
+                OXOPosition child = position.copy();
+                child.makeMove(moves[i]);
+                tasks.add(new ChildTask(child, moves[i], player, depth, ply, split));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+        // A split that stopped because of its own cutoff still has a valid result, but not one stopped from above
+        if(parent.isStopped()) return 0;
+
+        if(ply == 0) rootBestMove = split.bestMove;
+        int bound = split.bestScore <= alpha ? OXOTranspositionTable.UPPER_BOUND : split.bestScore >= beta ? OXOTranspositionTable.LOWER_BOUND : OXOTranspositionTable.EXACT;
+        table.store(hash, depth, OXOSearchEngine.toTable(split.bestScore, ply), bound, split.bestMove);
+        return split.bestScore;
+    }
+
+    // Score of the position after the player's move, from the player's point of view. As in OXOSearchEngine, only
+    // lines through the move count, so both engines score the same positions as wins
+    private int scoreChild(OXOPosition position, int player, int move, int depth, int alpha, int beta, int ply, Split split) {
+        if(position.hasLineThrough(player, move)) return OXOSearchEngine.WIN - ply - 1;
+        if(position.isFull()) return 0;
+        if((player == rootPlayer) == (position.getCurrentPlayer() == rootPlayer)) return search(position, depth - 1, alpha, beta, ply + 1, split);
+        return -search(position, depth - 1, -beta, -alpha, ply + 1, split);
+    }
+
+    // The moves of one node that are being searched in parallel, with the best result so far
+    private static class Split {
+        private final Split parent;
+        private final int beta;
+        private final long deadline;
+        private volatile int alpha;
+        private volatile boolean cutOff;
+        private int bestScore = -OXOSearchEngine.INFINITY;
+        private int bestMove = OXOTranspositionTable.NO_MOVE;
+
+        private Split(Split parentSplit, int lowerBound, int upperBound, long deadlineNanos) {
+            parent = parentSplit;
+            alpha = lowerBound;
+            beta = upperBound;
+            deadline = deadlineNanos;
+        }
+
+        private synchronized void offer(int score, int move) {
+            if(score > bestScore){
+                bestScore = score;
+                bestMove = move;
+            }
+            if(score > alpha) alpha = score;
+            if(alpha >= beta) cutOff = true;
+        }
+
+        private boolean isCutOff() {
+            return cutOff;
+        }
+
+        // True once this node or any node above it has a cutoff, or the time is up
+        private boolean isStopped() {
+            if(cutOff) return true;
+            if(parent == null) return System.nanoTime() > deadline;
+            return parent.isStopped();
+        }
+    }
+
+    private class ChildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient OXOPosition position;
+        private final int move;
+        private final int player;
+        private final int depth;
+        private final int ply;
+        private final transient Split split;
+
+        private ChildTask(OXOPosition childPosition, int childMove, int movingPlayer, int parentDepth, int parentPly, Split parentSplit) {
+            position = childPosition;
+            move = childMove;
+            player = movingPlayer;
+            depth = parentDepth;
+            ply = parentPly;
+            split = parentSplit;
+        }
+
+        protected void compute() {
+            if(split.isStopped()) return;
+            int score = scoreChild(position, player, move, depth, split.alpha, split.beta, ply, split);
+            if(!split.isStopped()) split.offer(score, move);
+        }
+    }
+}
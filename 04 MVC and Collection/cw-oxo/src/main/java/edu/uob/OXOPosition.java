@@ -0,0 +1,210 @@
+package edu.uob;
+
+// Compact copy of a game for search: one 128 bit mask per player (in the OXOBitBoard layout, indexed by player number
+// rather than board slot) plus a Zobrist hash, with make/unmake so that a search never has to copy the board per node.
+// The hash uses the OXOZobrist keys, so it matches OXOModel.getHash for the same game.
+public class OXOPosition {
+    public static final int MAX_PLAYERS = 26;
+    public static final int CELLS = OXOBitBoard.MAX_SIZE * OXOBitBoard.STRIDE;
+
+    private final int rows;
+    private final int columns;
+    private final int threshold;
+    private final int players;
+    private final long[] low;
+    private final long[] high;
+    private final long boardLow;
+    private final long boardHigh;
+    private long occupiedLow;
+    private long occupiedHigh;
+    private int currentPlayer;
+    private int moveCount;
+    private long hash;
+
+    public OXOPosition(int numberOfRows, int numberOfColumns, int winThreshold, int numberOfPlayers) {
+        if(numberOfRows > OXOBitBoard.MAX_SIZE || numberOfColumns > OXOBitBoard.MAX_SIZE) {
+            throw new IllegalArgumentException("Search positions are limited to " + OXOBitBoard.MAX_SIZE + "x" + OXOBitBoard.MAX_SIZE);
+        }
+        if(numberOfPlayers < 1 || numberOfPlayers > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Search positions need between 1 and " + MAX_PLAYERS + " players");
+        }
+        rows = numberOfRows;
+        columns = numberOfColumns;
+        threshold = winThreshold;
+        players = numberOfPlayers;
+        low = new long[players];
+        high = new long[players];
+        long boardMaskLow = 0, boardMaskHigh = 0;
+        for(int i = 0; i < rows; i++){
+            for(int j = 0; j < columns; j++){
+                int bit = i * OXOBitBoard.STRIDE + j;
+                if(bit < 64) boardMaskLow |= 1L << bit;
+                else boardMaskHigh |= 1L << (bit - 64);
+            }
+        }
+        boardLow = boardMaskLow;
+        boardHigh = boardMaskHigh;
+        hash = OXOZobrist.emptyBoardKey(rows, columns, threshold, 0);
+    }
+
+    public static OXOPosition fromModel(OXOModel model) {
+        OXOPosition position = new OXOPosition(model.getNumberOfRows(), model.getNumberOfColumns(), model.getWinThreshold(), model.getNumberOfPlayers());
+        int[] numbers = new int[model.getNumberOfPlayers()];
+        for(int i = 0; i < numbers.length; i++) numbers[i] = model.getSlot(model.getPlayerByNumber(i));
+        for(int i = 0; i < position.rows; i++){
+            for(int j = 0; j < position.columns; j++){
+                int slot = model.getBoard().getOwner(i, j);
+                for(int player = 0; slot != OXOBoard.EMPTY && player < numbers.length; player++){
+                    if(numbers[player] == slot) position.place(i * OXOBitBoard.STRIDE + j, player);
+                }
+            }
+        }
+        position.setCurrentPlayer(model.getCurrentPlayerNumber());
+        return position;
+    }
+
+    public OXOPosition copy() {
+        OXOPosition copy = new OXOPosition(rows, columns, threshold, players);
+        System.arraycopy(low, 0, copy.low, 0, players);
+        System.arraycopy(high, 0, copy.high, 0, players);
+        copy.occupiedLow = occupiedLow;
+        copy.occupiedHigh = occupiedHigh;
+        copy.currentPlayer = currentPlayer;
+        copy.moveCount = moveCount;
+        copy.hash = hash;
+        return copy;
+    }
+
+    // Overwrites this position with another of the same size and number of players, without allocating
+    public void copyFrom(OXOPosition other) {
+        System.arraycopy(other.low, 0, low, 0, players);
+        System.arraycopy(other.high, 0, high, 0, players);
+        occupiedLow = other.occupiedLow;
+        occupiedHigh = other.occupiedHigh;
+        currentPlayer = other.currentPlayer;
+        moveCount = other.moveCount;
+        hash = other.hash;
+    }
+
+    public int getNumberOfRows() {
+        return rows;
+    }
+
+    public int getNumberOfColumns() {
+        return columns;
+    }
+
+    public int getWinThreshold() {
+        return threshold;
+    }
+
+    public int getNumberOfPlayers() {
+        return players;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public long getLowMask(int player) {
+        return low[player];
+    }
+
+    public long getHighMask(int player) {
+        return high[player];
+    }
+
+    public long getEmptyLow() {
+        return boardLow & ~occupiedLow;
+    }
+
+    public long getEmptyHigh() {
+        return boardHigh & ~occupiedHigh;
+    }
+
+    public boolean isFull() {
+        return getEmptyLow() == 0 && getEmptyHigh() == 0;
+    }
+
+    public boolean isEmpty(int bit) {
+        return bit < 64 ? (occupiedLow & (1L << bit)) == 0 : (occupiedHigh & (1L << (bit - 64))) == 0;
+    }
+
+    public int getOwner(int bit) {
+        for(int player = 0; player < players; player++){
+            if(bit < 64 ? (low[player] & (1L << bit)) != 0 : (high[player] & (1L << (bit - 64))) != 0) return player;
+        }
+        return OXOBoard.EMPTY;
+    }
+
+    public boolean hasLine(int player) {
+        return OXOWinDetector.hasLine(low[player], high[player], rows, columns, threshold);
+    }
+
+    // Whether the player's cell at the bit index completes a line, for checking just the most recent move
+    public boolean hasLineThrough(int player, int bit) {
+        return OXOWinDetector.hasLineThrough(low[player], high[player], rows, columns, threshold, bit);
+    }
+
+    public int nextPlayer(int player) {
+        return player + 1 == players ? 0 : player + 1;
+    }
+
+    public int previousPlayer(int player) {
+        return player == 0 ? players - 1 : player - 1;
+    }
+
+    // Claims the cell for the player to move and passes the turn on
+    public void makeMove(int bit) {
+        place(bit, currentPlayer);
+        setCurrentPlayer(nextPlayer(currentPlayer));
+        moveCount++;
+    }
+
+    // Takes back a move made with makeMove, which must be the most recent one
+    public void unmakeMove(int bit) {
+        int player = previousPlayer(currentPlayer);
+        setCurrentPlayer(player);
+        place(bit, player);
+        moveCount--;
+    }
+
+    public void setCurrentPlayer(int player) {
+        hash ^= OXOZobrist.playerKey(currentPlayer) ^ OXOZobrist.playerKey(player);
+        currentPlayer = player;
+    }
+
+    // Toggles the cell for the player: claims it when empty, clears it when the player owns it
+    private void place(int bit, int player) {
+        if(bit < 64) {
+            long mask = 1L << bit;
+            low[player] ^= mask;
+            occupiedLow ^= mask;
+        } else {
+            long mask = 1L << (bit - 64);
+            high[player] ^= mask;
+            occupiedHigh ^= mask;
+        }
+        hash ^= OXOZobrist.cellKey(player, bit);
+    }
+
+    public static int rowOf(int bit) {
+        return bit / OXOBitBoard.STRIDE;
+    }
+
+    public static int columnOf(int bit) {
+        return bit % OXOBitBoard.STRIDE;
+    }
+
+    public static int bitOf(int rowNumber, int colNumber) {
+        return rowNumber * OXOBitBoard.STRIDE + colNumber;
+    }
+}
@@ -0,0 +1,32 @@
+package edu.uob;
+
+import java.util.SplittableRandom;
+
+// Claims an empty cell picked uniformly at random
+public class OXORandomStrategy implements OXOStrategy {
+
+    private final SplittableRandom random;
+
+    public OXORandomStrategy(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    public String chooseMove(OXOModel model) {
+        long emptyCells = (long) model.getNumberOfRows() * model.getNumberOfColumns() - model.getNumberOfFilledCells();
+        if(emptyCells == 0) return null;
+
+        long choice = random.nextLong(emptyCells);
+        for(int i = 0; i < model.getNumberOfRows(); i++){
+            // Skip whole rows that the choice lies beyond
+            int emptyInRow = model.getNumberOfColumns() - model.getFilledCellsInRow(i);
+            if(choice >= emptyInRow) {
+                choice -= emptyInRow;
+                continue;
+            }
+            for(int j = 0; j < model.getNumberOfColumns(); j++){
+                if(model.isCellEmpty(i, j) && choice-- == 0) return OXOController.cellIdentifier(i, j);
+            }
+        }
+        return null;
+    }
+}
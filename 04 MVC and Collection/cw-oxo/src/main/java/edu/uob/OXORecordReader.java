@@ -0,0 +1,181 @@
+package edu.uob;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+// Replays an archive written by OXORecordWriter through a real OXOController, reading it through a memory map.
+// The archive is mapped a window at a time (so it can be bigger than 2 GB) and each game is checked to lie wholly
+// inside the current window before it is replayed. The model, controller and players are reused from game to game
+// while the players stay the same, and moves go straight to OXOController.tryMove, so replaying allocates nothing
+// per move.
+// Usage: OXORecordReader <archive>   replays and verifies every game
+public class OXORecordReader implements Closeable {
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowLimit;
+    private MappedByteBuffer buffer;
+    private long windowStart;
+    // File offset of the next game
+    private long next;
+    private long gamesRead;
+
+    private OXOModel model;
+    private OXOController controller;
+    private final OXOPlayer[] playersByLetter = new OXOPlayer[128];
+    private final byte[] letters = new byte[256];
+    private int numberOfPlayers = -1;
+    private int recordedOutcome;
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.out.println("Usage: OXORecordReader <archive>");
+            return;
+        }
+        long start = System.nanoTime();
+        try(OXORecordReader reader = new OXORecordReader(Paths.get(args[0]))) {
+            long games = reader.verifyAll();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Verified %d games in %.2f s (%.0f games/s)%n", games, seconds, games / seconds);
+        }
+    }
+
+    public OXORecordReader(Path path) throws IOException {
+        this(path, WINDOW_SIZE);
+    }
+
+    // A smaller window is only useful for testing games that straddle two windows
+    OXORecordReader(Path path, long windowSize) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        windowLimit = windowSize;
+        map(0);
+        for(int i = 0; i < OXORecordWriter.MAGIC.length; i++){
+            if(size <= i || buffer.get(i) != OXORecordWriter.MAGIC[i]) {
+                channel.close();
+                throw new IOException(path + " is not a game archive");
+            }
+        }
+        next = OXORecordWriter.MAGIC.length;
+    }
+
+    public boolean hasNext() {
+        return next < size;
+    }
+
+    public long getGamesRead() {
+        return gamesRead;
+    }
+
+    // Replays the next game and returns the model in its final state (the model is reused by the following game)
+    public OXOModel next() throws IOException {
+        if(!hasNext()) throw new NoSuchElementException("No more games in the archive");
+        long end = findEnd(next);
+        if(end < 0 && windowStart != next) {
+            map(next);
+            end = findEnd(next);
+        }
+        if(end < 0) throw new IOException("Game " + gamesRead + " is truncated or larger than the map window");
+
+        int offset = (int) (next - windowStart);
+        int rows = read(offset), columns = read(offset + 1), threshold = read(offset + 2), players = read(offset + 3);
+        prepareGame(offset + 4, rows, columns, threshold, players);
+        int position = offset + 4 + players;
+        int last = (int) (end - windowStart);
+        for(; position < last; position++){
+            int code = read(position);
+            switch(code) {
+                case OXORecordWriter.ADD_ROW: controller.addRow(); break;
+                case OXORecordWriter.REMOVE_ROW: controller.removeRow(); break;
+                case OXORecordWriter.ADD_COLUMN: controller.addColumn(); break;
+                case OXORecordWriter.REMOVE_COLUMN: controller.removeColumn(); break;
+                case OXORecordWriter.INCREASE_THRESHOLD: controller.increaseWinThreshold(); break;
+                case OXORecordWriter.DECREASE_THRESHOLD: controller.decreaseWinThreshold(); break;
+                default:
+                    if(code >= OXORecordWriter.STRIDE * OXORecordWriter.STRIDE) throw new IOException("Game " + gamesRead + " has an unknown code " + code);
+                    OXOMoveResult result = controller.tryMove(code / OXORecordWriter.STRIDE, code % OXORecordWriter.STRIDE);
+                    if(result.isRejected()) throw new IOException("Game " + gamesRead + " has a rejected move (" + result + ") at byte " + (windowStart + position));
+            }
+        }
+        recordedOutcome = read(last + 1);
+        next = end + 2;
+        gamesRead++;
+        return model;
+    }
+
+    // Whether the game just replayed finished the way the archive says it did
+    public boolean matchesRecordedOutcome() {
+        if(recordedOutcome == OXORecordWriter.DRAWN) return model.isGameDrawn() && model.getWinner() == null;
+        if(recordedOutcome == OXORecordWriter.UNFINISHED) return !model.isGameDrawn() && model.getWinner() == null;
+        return recordedOutcome < model.getNumberOfPlayers() && model.getWinner() == model.getPlayerByNumber(recordedOutcome);
+    }
+
+    // Replays every remaining game, failing on the first one whose outcome does not match, and returns how many there were
+    public long verifyAll() throws IOException {
+        long count = 0;
+        while(hasNext()){
+            next();
+            if(!matchesRecordedOutcome()) throw new IOException("Game " + (gamesRead - 1) + " does not replay to its recorded outcome");
+            count++;
+        }
+        return count;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // File offset of the END byte of the game starting at the offset, or -1 if it is not all in the current window
+    private long findEnd(long start) {
+        int offset = (int) (start - windowStart);
+        int limit = buffer.limit();
+        if(offset + 4 > limit) return -1;
+        int position = offset + 4 + read(offset + 3);
+        while(position < limit && read(position) != OXORecordWriter.END) position++;
+        // The outcome byte comes after END
+        return position + 1 < limit ? windowStart + position : -1;
+    }
+
+    // Sets up an empty game, reusing the model and controller when the players are the same as last time
+    private void prepareGame(int offset, int rows, int columns, int threshold, int players) {
+        boolean samePlayers = players == numberOfPlayers;
+        for(int i = 0; samePlayers && i < players; i++) samePlayers = letters[i] == buffer.get(offset + i);
+        if(!samePlayers) {
+            model = new OXOModel(rows, columns, threshold);
+            for(int i = 0; i < players; i++){
+                letters[i] = buffer.get(offset + i);
+                model.addPlayer(player((char) (letters[i] & 0x7F)));
+            }
+            numberOfPlayers = players;
+            controller = new OXOController(model);
+            return;
+        }
+        controller.reset();
+        while(model.getNumberOfRows() < rows) model.addRow();
+        while(model.getNumberOfRows() > rows) model.removeRow();
+        while(model.getNumberOfColumns() < columns) model.addColumn();
+        while(model.getNumberOfColumns() > columns) model.removeColumn();
+        model.setWinThreshold(threshold);
+    }
+
+    private OXOPlayer player(char letter) {
+        if(playersByLetter[letter] == null) playersByLetter[letter] = new OXOPlayer(letter);
+        return playersByLetter[letter];
+    }
+
+    private int read(int offset) {
+        return buffer.get(offset) & 0xFF;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowLimit, size - start));
+    }
+}
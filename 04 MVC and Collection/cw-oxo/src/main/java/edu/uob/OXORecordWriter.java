@@ -0,0 +1,84 @@
+package edu.uob;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Writes games in the compact binary archive format read by OXORecordReader:
+//   file header:  'O' 'X' 'R' <version>
+//   game header:  <rows> <columns> <threshold> <players> <one ASCII letter per player>
+//   moves:        one byte each, row * 9 + column for a cell, or one of the event codes below
+//   trailer:      END, then the number of the winning player, DRAWN or UNFINISHED
+// Cells are encoded for boards of up to 9x9, which is as large as the controller lets a board grow.
+public class OXORecordWriter implements Closeable {
+    static final byte[] MAGIC = { 'O', 'X', 'R', 1 };
+    static final int STRIDE = 9;
+    public static final int ADD_ROW = 0xF0;
+    public static final int REMOVE_ROW = 0xF1;
+    public static final int ADD_COLUMN = 0xF2;
+    public static final int REMOVE_COLUMN = 0xF3;
+    public static final int INCREASE_THRESHOLD = 0xF4;
+    public static final int DECREASE_THRESHOLD = 0xF5;
+    public static final int END = 0xFF;
+    public static final int DRAWN = 0xFE;
+    public static final int UNFINISHED = 0xFD;
+
+    private final OutputStream output;
+
+    public OXORecordWriter(OutputStream stream) throws IOException {
+        output = new BufferedOutputStream(stream, 1 << 16);
+        output.write(MAGIC);
+    }
+
+    // Starts a game from the model's current size, threshold and players (normally an empty board)
+    public void startGame(OXOModel model) throws IOException {
+        if(model.getNumberOfRows() > STRIDE || model.getNumberOfColumns() > STRIDE) {
+            throw new IllegalArgumentException("Game records only hold boards up to " + STRIDE + "x" + STRIDE);
+        }
+        // The threshold and the number of players are written as one byte each
+        if(model.getWinThreshold() > 0xFF || model.getNumberOfPlayers() > 0xFF) {
+            throw new IllegalArgumentException("Game records only hold thresholds and numbers of players up to " + 0xFF);
+        }
+        output.write(model.getNumberOfRows());
+        output.write(model.getNumberOfColumns());
+        output.write(model.getWinThreshold());
+        output.write(model.getNumberOfPlayers());
+        for(int i = 0; i < model.getNumberOfPlayers(); i++){
+            output.write(model.getPlayerByNumber(i).getPlayingLetter());
+        }
+    }
+
+    public void move(int rowNumber, int colNumber) throws IOException {
+        if(rowNumber >= STRIDE || colNumber >= STRIDE) {
+            throw new IllegalArgumentException("Cell [" + rowNumber + "," + colNumber + "] cannot be recorded");
+        }
+        output.write(rowNumber * STRIDE + colNumber);
+    }
+
+    // One of the event codes, such as ADD_ROW
+    public void event(int code) throws IOException {
+        if(code < ADD_ROW || code > DECREASE_THRESHOLD) throw new IllegalArgumentException("Unknown event " + code);
+        output.write(code);
+    }
+
+    // Ends the game with the outcome the model has reached
+    public void endGame(OXOModel model) throws IOException {
+        output.write(END);
+        if(model.getWinner() != null) {
+            for(int i = 0; i < model.getNumberOfPlayers(); i++){
+                if(model.getPlayerByNumber(i) == model.getWinner()) output.write(i);
+            }
+        } else {
+            output.write(model.isGameDrawn() ? DRAWN : UNFINISHED);
+        }
+    }
+
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    public void close() throws IOException {
+        output.close();
+    }
+}
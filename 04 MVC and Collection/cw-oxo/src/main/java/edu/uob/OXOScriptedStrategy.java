@@ -0,0 +1,37 @@
+package edu.uob;
+
+// Plays a fixed order of preference: always the first cell in the script that is still empty,
+// handing over to the fallback strategy (if there is one) once every cell in the script has been taken
+public class OXOScriptedStrategy implements OXOStrategy {
+
+    private final int[] rows;
+    private final int[] columns;
+    private final OXOStrategy fallback;
+
+    public OXOScriptedStrategy(String... script) {
+        this(null, script);
+    }
+
+    public OXOScriptedStrategy(OXOStrategy fallbackStrategy, String... script) {
+        fallback = fallbackStrategy;
+        rows = new int[script.length];
+        columns = new int[script.length];
+        for(int i = 0; i < script.length; i++){
+            if(script[i].length() != 2) throw new IllegalArgumentException("Invalid cell identifier " + script[i]);
+            rows[i] = Character.toLowerCase(script[i].charAt(0)) - 'a';
+            columns[i] = script[i].charAt(1) - '1';
+            if(rows[i] < 0 || rows[i] >= 26 || columns[i] < 0 || columns[i] >= 9){
+                throw new IllegalArgumentException("Invalid cell identifier " + script[i]);
+            }
+        }
+    }
+
+    public String chooseMove(OXOModel model) {
+        for(int i = 0; i < rows.length; i++){
+            if(rows[i] < model.getNumberOfRows() && columns[i] < model.getNumberOfColumns() && model.isCellEmpty(rows[i], columns[i])){
+                return OXOController.cellIdentifier(rows[i], columns[i]);
+            }
+        }
+        return fallback == null ? null : fallback.chooseMove(model);
+    }
+}
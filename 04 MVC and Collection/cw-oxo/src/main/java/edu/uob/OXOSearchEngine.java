@@ -0,0 +1,254 @@
+package edu.uob;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+// Computer player: iterative deepening negamax with alpha-beta pruning over an OXOPosition, with a transposition
+// table and move ordering (table move first, then history heuristic, then closeness to the centre).
+// With more than two players the search is "paranoid": the player to move at the root plays against a coalition
+// of everyone else, so the score only changes sign when play passes between the root player and the coalition.
+// Scores are from the point of view of the side to move; a win is worth WIN less the number of plies it takes.
+public class OXOSearchEngine implements OXOStrategy {
+    public static final int WIN = 1_000_000;
+    // Any score beyond this is a forced win or loss rather than a heuristic estimate
+    public static final int WIN_BOUND = WIN - 1000;
+    static final int INFINITY = WIN + 1;
+    private static final int MAX_PLY = OXOPosition.CELLS + 1;
+
+    private final long timeLimitNanos;
+    private final int depthLimit;
+    private final OXOTranspositionTable table;
+    // A table shared with other engines is cleared by whoever owns it, not when this engine sees new rules
+    private final boolean ownsTable;
+    private final int[][] moves = new int[MAX_PLY][OXOPosition.CELLS];
+    private final int[][] moveScores = new int[MAX_PLY][OXOPosition.CELLS];
+    private final int[] history = new int[OXOPosition.CELLS];
+    private final int[] centreBonus = new int[OXOPosition.CELLS];
+
+    private OXOPosition position;
+    private int rootPlayer;
+    private int rootBestMove;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private BooleanSupplier stopCondition;
+    // Rules (see rulesOf) of the positions currently in the table and bonus arrays
+    private long rules = -1;
+    private int lastDepth;
+    private int lastScore;
+
+    public OXOSearchEngine(long timeLimitMillis) {
+        this(timeLimitMillis, MAX_PLY, 20);
+    }
+
+    public OXOSearchEngine(long timeLimitMillis, int maximumDepth, int tableSizeBits) {
+        this(timeLimitMillis, maximumDepth, new OXOTranspositionTable(tableSizeBits), true);
+    }
+
+    OXOSearchEngine(long timeLimitMillis, int maximumDepth, OXOTranspositionTable sharedTable, boolean owner) {
+        timeLimitNanos = timeLimitMillis * 1_000_000L;
+        depthLimit = maximumDepth;
+        table = sharedTable;
+        ownsTable = owner;
+    }
+
+    public String chooseMove(OXOModel model) {
+        if(model.getWinner() != null || model.isGameDrawn() || model.isBoardFull()) return null;
+        int bit = findBestMove(OXOPosition.fromModel(model));
+        return bit < 0 ? null : OXOController.cellIdentifier(OXOPosition.rowOf(bit), OXOPosition.columnOf(bit));
+    }
+
+    // Searches deeper and deeper until the time runs out or the result is known, returning the cell (as a bit index)
+    // chosen by the deepest search that finished, or -1 if the board is full
+    public int findBestMove(OXOPosition start) {
+        prepare(start, start.getCurrentPlayer());
+        // Let old history fade so that it does not swamp what this search learns
+        for(int i = 0; i < history.length; i++) history[i] >>= 1;
+        deadline = System.nanoTime() + timeLimitNanos;
+        stopCondition = null;
+        aborted = false;
+        nodes = 0;
+        lastDepth = 0;
+
+        int emptyCells = Long.bitCount(start.getEmptyLow()) + Long.bitCount(start.getEmptyHigh());
+        if(emptyCells == 0) return -1;
+        int bestMove = generateMoves(start, OXOTranspositionTable.NO_MOVE, moves[0], moveScores[0]) > 0 ? moves[0][0] : -1;
+        for(int depth = 1; depth <= Math.min(depthLimit, emptyCells); depth++){
+            int score = search(depth, -INFINITY, INFINITY, 0);
+            if(aborted) break;
+            bestMove = rootBestMove;
+            lastScore = score;
+            lastDepth = depth;
+            if(Math.abs(score) > WIN_BOUND) break;
+        }
+        return bestMove;
+    }
+
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    public long getLastNodeCount() {
+        return nodes;
+    }
+
+    // Gets the engine ready to work on the position for a search whose root was played by the given player
+    void prepare(OXOPosition start, int root) {
+        position = start;
+        rootPlayer = root;
+        prepareForRules();
+    }
+
+    // Searches below the prepared position on behalf of another engine (such as one split across threads).
+    // Gives up, and wasAborted says so, at the deadline or as soon as the stop condition holds.
+    int searchSubtree(int depth, int alpha, int beta, int ply, long deadlineNanos, BooleanSupplier stop) {
+        deadline = deadlineNanos;
+        stopCondition = stop;
+        aborted = false;
+        return search(depth, alpha, beta, ply);
+    }
+
+    // The move list and scores kept for one ply, for callers that generate moves with this engine's buffers
+    int[] movesAt(int ply) {
+        return moves[ply];
+    }
+
+    int[] moveScoresAt(int ply) {
+        return moveScores[ply];
+    }
+
+    boolean wasAborted() {
+        return aborted;
+    }
+
+    boolean isRootTeam(int player) {
+        return player == rootPlayer;
+    }
+
+    // Rows, columns, threshold and players, plus the root player when there are more than two, since paranoid
+    // scores depend on who the coalition is against
+    static long rulesOf(OXOPosition position, int rootPlayer) {
+        long rules = ((long) position.getNumberOfRows() << 24) | (position.getNumberOfColumns() << 16) | (position.getWinThreshold() << 8) | position.getNumberOfPlayers();
+        if(position.getNumberOfPlayers() > 2) rules |= (long) rootPlayer << 32;
+        return rules;
+    }
+
+    private void prepareForRules() {
+        long current = rulesOf(position, rootPlayer);
+        if(current != rules){
+            rules = current;
+            if(ownsTable) table.clear();
+            Arrays.fill(history, 0);
+            for(int i = 0; i < position.getNumberOfRows(); i++){
+                for(int j = 0; j < position.getNumberOfColumns(); j++){
+                    centreBonus[OXOPosition.bitOf(i, j)] = -(Math.abs(2 * i - position.getNumberOfRows() + 1) + Math.abs(2 * j - position.getNumberOfColumns() + 1));
+                }
+            }
+        }
+    }
+
+    private int search(int depth, int alpha, int beta, int ply) {
+        if((++nodes & 1023) == 0 && (System.nanoTime() > deadline || (stopCondition != null && stopCondition.getAsBoolean()))) aborted = true;
+        if(aborted) return 0;
+
+        int player = position.getCurrentPlayer();
+        long hash = position.getHash();
+        int originalAlpha = alpha;
+        int tableMove = OXOTranspositionTable.NO_MOVE;
+        long record = table.probe(hash);
+        if(record != 0){
+            tableMove = OXOTranspositionTable.bestMoveOf(record);
+            if(ply > 0 && OXOTranspositionTable.depthOf(record) >= depth){
+                int score = fromTable(OXOTranspositionTable.scoreOf(record), ply);
+                int bound = OXOTranspositionTable.boundOf(record);
+                if(bound == OXOTranspositionTable.EXACT) return score;
+                if(bound == OXOTranspositionTable.LOWER_BOUND) alpha = Math.max(alpha, score);
+                else beta = Math.min(beta, score);
+                if(alpha >= beta) return score;
+            }
+        }
+        if(depth == 0) return evaluate(player);
+
+        int count = generateMoves(position, tableMove, moves[ply], moveScores[ply]);
+        int bestScore = -INFINITY;
+        int bestMove = OXOTranspositionTable.NO_MOVE;
+        for(int i = 0; i < count; i++){
+            int bit = moves[ply][i];
+            position.makeMove(bit);
+            int score;
+            if(position.hasLineThrough(player, bit)) score = WIN - ply - 1;
+            else if(position.isFull()) score = 0;
+            else if(isRootTeam(player) == isRootTeam(position.getCurrentPlayer())) score = search(depth - 1, alpha, beta, ply + 1);
+            else score = -search(depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove(bit);
+            if(aborted) return 0;
+
+            if(score > bestScore){
+                bestScore = score;
+                bestMove = bit;
+                if(ply == 0) rootBestMove = bit;
+            }
+            if(score > alpha) alpha = score;
+            if(alpha >= beta){
+                if(history[bit] < (1 << 24)) history[bit] += depth * depth;
+                break;
+            }
+        }
+
+        int bound = bestScore <= originalAlpha ? OXOTranspositionTable.UPPER_BOUND : bestScore >= beta ? OXOTranspositionTable.LOWER_BOUND : OXOTranspositionTable.EXACT;
+        table.store(hash, depth, toTable(bestScore, ply), bound, bestMove);
+        return bestScore;
+    }
+
+    // Open windows for the side to move's team less those of the other team
+    int evaluate(int player) {
+        long emptyLow = position.getEmptyLow(), emptyHigh = position.getEmptyHigh();
+        int score = 0;
+        for(int other = 0; other < position.getNumberOfPlayers(); other++){
+            long ownLow = position.getLowMask(other), ownHigh = position.getHighMask(other);
+            int windows = OXOWinDetector.scoreWindows(ownLow, ownHigh, emptyLow | ownLow, emptyHigh | ownHigh,
+                position.getNumberOfRows(), position.getNumberOfColumns(), position.getWinThreshold());
+            score += isRootTeam(other) == isRootTeam(player) ? windows : -windows;
+        }
+        return score;
+    }
+
+    // Fills the list with every empty cell, best first, and returns how many there are
+    int generateMoves(OXOPosition from, int tableMove, int[] list, int[] scores) {
+        int count = 0;
+        for(int half = 0; half < 2; half++){
+            long empty = half == 0 ? from.getEmptyLow() : from.getEmptyHigh();
+            while(empty != 0){
+                int bit = Long.numberOfTrailingZeros(empty) + 64 * half;
+                empty &= empty - 1;
+                int score = bit == tableMove ? Integer.MAX_VALUE : history[bit] * 16 + centreBonus[bit];
+                int i = count++;
+                while(i > 0 && scores[i - 1] < score){
+                    list[i] = list[i - 1];
+                    scores[i] = scores[i - 1];
+                    i--;
+                }
+                list[i] = bit;
+                scores[i] = score;
+            }
+        }
+        return count;
+    }
+
+    // Wins are stored relative to the node rather than the root, so they stay correct wherever the position is reached
+    static int toTable(int score, int ply) {
+        if(score > WIN_BOUND) return score + ply;
+        if(score < -WIN_BOUND) return score - ply;
+        return score;
+    }
+
+    static int fromTable(int score, int ply) {
+        if(score > WIN_BOUND) return score - ply;
+        if(score < -WIN_BOUND) return score + ply;
+        return score;
+    }
+}
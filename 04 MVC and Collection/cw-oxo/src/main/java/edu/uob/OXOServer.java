@@ -0,0 +1,171 @@
+package edu.uob;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+// Single threaded, non-blocking game server: one selector multiplexes every connection and each connection
+// plays its own game through an OXOSession, one line of text per request and one line per reply.
+// Usage: OXOServer [port] [rows] [columns] [threshold] [players]
+public class OXOServer implements Runnable {
+    static final int MAX_LINE_LENGTH = 256;
+    static final String LINE_TOO_LONG = "ERROR Line longer than " + MAX_LINE_LENGTH + " characters";
+    // Stop reading from a client that is not collecting its replies once this much output is waiting
+    private static final int MAX_PENDING_OUTPUT = 64 * 1024;
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final int rows;
+    private final int columns;
+    private final int threshold;
+    private final int players;
+    private volatile boolean running = true;
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8888;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int columns = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int threshold = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int players = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        OXOServer server = new OXOServer(port, rows, columns, threshold, players);
+        System.out.println("Server listening on port " + server.getPort());
+        server.run();
+    }
+
+    public OXOServer(int port, int numberOfRows, int numberOfColumns, int winThreshold, int numberOfPlayers) throws IOException {
+        rows = numberOfRows;
+        columns = numberOfColumns;
+        threshold = winThreshold;
+        players = numberOfPlayers;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    public void run() {
+        try {
+            while(running){
+                selector.select();
+                for(SelectionKey key : selector.selectedKeys()){
+                    try {
+                        if(!key.isValid()) continue;
+                        if(key.isAcceptable()) accept();
+                        else if(key.isReadable()) read(key);
+                        if(key.isValid() && key.isWritable()) write(key);
+                    } catch (IOException exception) {
+                        close(key);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException exception) {
+            System.out.println("Server stopped: " + exception);
+        } finally {
+            for(SelectionKey key : selector.keys()){
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // nothing more can be done while shutting down
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while((channel = serverChannel.accept()) != null){
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(new OXOSession(rows, columns, threshold, players)));
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        if(channel.read(connection.input) < 0){
+            close(key);
+            return;
+        }
+
+        ByteBuffer input = connection.input;
+        input.flip();
+        int start = input.position();
+        for(int i = start; i < input.limit(); i++){
+            if(input.get(i) != '\n') continue;
+            int end = i > start && input.get(i - 1) == '\r' ? i - 1 : i;
+            // The end of a line that was too long is dropped rather than read as a request of its own
+            if(connection.discarding) connection.discarding = false;
+            else connection.reply(connection.session.handleLine(input.array(), start, end - start));
+            start = i + 1;
+        }
+        input.position(start);
+        input.compact();
+        if(!input.hasRemaining()){
+            input.clear();
+            if(!connection.discarding) connection.reply(LINE_TOO_LONG);
+            connection.discarding = true;
+        }
+        // Most replies fit in the socket buffer, so try to send them straight away rather than waiting for another select
+        if(connection.output.position() > 0) write(key);
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        connection.output.flip();
+        ((SocketChannel) key.channel()).write(connection.output);
+        connection.output.compact();
+        int pending = connection.output.position();
+        if(pending == 0) key.interestOps(SelectionKey.OP_READ);
+        else if(pending > MAX_PENDING_OUTPUT) key.interestOps(SelectionKey.OP_WRITE);
+        else key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // the connection is being dropped anyway
+        }
+    }
+
+    private static class Connection {
+        private final OXOSession session;
+        private final ByteBuffer input = ByteBuffer.allocate(MAX_LINE_LENGTH);
+        private ByteBuffer output = ByteBuffer.allocate(512);
+        private boolean discarding;
+
+        private Connection(OXOSession gameSession) {
+            session = gameSession;
+        }
+
+        private void reply(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+            if(output.remaining() < bytes.length + 1){
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(output.capacity() * 2, output.position() + bytes.length + 1));
+                output.flip();
+                larger.put(output);
+                output = larger;
+            }
+            output.put(bytes).put((byte) '\n');
+        }
+    }
+}
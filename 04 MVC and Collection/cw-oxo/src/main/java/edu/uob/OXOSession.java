@@ -0,0 +1,92 @@
+package edu.uob;
+
+import java.nio.charset.StandardCharsets;
+
+// One networked game: turns a line of text from a client into a controller call and describes the result.
+// Requests are a cell identifier (such as "b2") or one of the verbs below, and every reply is a single line:
+//   OK <rows> <columns> <threshold> <cells> <state>   where cells are rows of letters (or '.') separated by '/'
+//                                                    and state is TURN <letter>, WIN <letter> or DRAW
+//   ERROR <message>
+public class OXOSession {
+    private static final char[] LETTERS = "XOABCDEFGHIJKLMNPQRSTUVWYZ".toCharArray();
+
+    private final OXOModel model;
+    private final OXOController controller;
+
+    public OXOSession(int numberOfRows, int numberOfColumns, int winThreshold, int numberOfPlayers) {
+        model = new OXOModel(numberOfRows, numberOfColumns, winThreshold);
+        for(int i = 0; i < numberOfPlayers; i++){
+            model.addPlayer(new OXOPlayer(LETTERS[i]));
+        }
+        controller = new OXOController(model);
+    }
+
+    public OXOModel getModel() {
+        return model;
+    }
+
+    // Moves are read straight from the client's ASCII bytes, without making a String; anything else (the verbs, or a
+    // line with bytes outside ASCII) goes through handleLine(String) as before
+    public String handleLine(byte[] line, int offset, int length) {
+        int start = offset, end = offset + length;
+        while(start < end && (line[start] & 0xFF) <= ' ') start++;
+        while(end > start && (line[end - 1] & 0xFF) <= ' ') end--;
+        boolean move = false;
+        for(int i = start; i < end; i++){
+            if(line[i] < 0) return handleLine(new String(line, offset, length, StandardCharsets.US_ASCII));
+            if(line[i] >= '0' && line[i] <= '9') move = true;
+        }
+        if(!move) return handleLine(new String(line, start, end - start, StandardCharsets.US_ASCII));
+        // No verb has a digit in it, so this can only be a cell identifier
+        try {
+            controller.handleIncomingCommand(line, start, end - start);
+        } catch (OXOMoveException exception) {
+            return "ERROR " + exception.getMessage();
+        }
+        return describeBoard();
+    }
+
+    public String handleLine(String line) {
+        String command = line.trim();
+        try {
+            switch(command.toLowerCase()) {
+                case "board": break;
+                case "reset": controller.reset(); break;
+                case "addrow": controller.addRow(); break;
+                case "removerow": controller.removeRow(); break;
+                case "addcolumn": controller.addColumn(); break;
+                case "removecolumn": controller.removeColumn(); break;
+                case "increase": controller.increaseWinThreshold(); break;
+                case "decrease": controller.decreaseWinThreshold(); break;
+                case "undo": controller.undo(); break;
+                case "redo": controller.redo(); break;
+                default: controller.handleIncomingCommand(command);
+            }
+        } catch (OXOMoveException exception) {
+            return "ERROR " + exception.getMessage();
+        }
+        return describeBoard();
+    }
+
+    public String describeBoard() {
+        return describe(model.snapshot());
+    }
+
+    // Works from a snapshot, so a board can be described for broadcasting on any thread
+    public static String describe(OXOBoardSnapshot model) {
+        StringBuilder builder = new StringBuilder(16 + model.getNumberOfRows() * (model.getNumberOfColumns() + 1));
+        builder.append("OK ").append(model.getNumberOfRows()).append(' ').append(model.getNumberOfColumns());
+        builder.append(' ').append(model.getWinThreshold()).append(' ');
+        for(int i = 0; i < model.getNumberOfRows(); i++){
+            if(i > 0) builder.append('/');
+            for(int j = 0; j < model.getNumberOfColumns(); j++){
+                OXOPlayer owner = model.getCellOwner(i, j);
+                builder.append(owner == null ? '.' : owner.getPlayingLetter());
+            }
+        }
+        if(model.getWinner() != null) builder.append(" WIN ").append(model.getWinner().getPlayingLetter());
+        else if(model.isGameDrawn()) builder.append(" DRAW");
+        else builder.append(" TURN ").append(model.getPlayerByNumber(model.getCurrentPlayerNumber()).getPlayingLetter());
+        return builder.toString();
+    }
+}
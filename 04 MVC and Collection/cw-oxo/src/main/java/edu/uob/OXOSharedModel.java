@@ -0,0 +1,258 @@
+package edu.uob;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A game board that many threads can play on and read at once without locks. Cells are packed four bits each
+// (0 for empty, otherwise the player number + 1) into an AtomicLongArray, and everything else about the game sits in
+// one AtomicLong: the number of moves made, the player to move, the winner, the draw flag and the cell of a move in
+// progress. A move is made by CASing that cell into the state, which reserves the turn, and then finishing it:
+// writing the cell, checking for a line and CASing the state on to the next turn. Any thread that finds a move in
+// progress finishes it first, so a stalled mover never holds anybody else up.
+// The size, threshold and players are fixed; start a new OXOSharedModel for a new game.
+public class OXOSharedModel {
+    public static final int MAXIMUM_PLAYERS = 15;
+    public static final int MAXIMUM_CELLS = (1 << 23) - 2;
+
+    private static final int CELLS_PER_WORD = 16;
+    private static final int BITS_PER_CELL = 4;
+    private static final long CELL_MASK = 0xF;
+    // State layout: ply in bits 0-23, player to move in 24-31, winner + 1 in 32-39, drawn in 40, pending cell + 1 above
+    private static final long PLY_MASK = (1L << 24) - 1;
+    private static final int TURN_SHIFT = 24;
+    private static final int WINNER_SHIFT = 32;
+    private static final long DRAWN = 1L << 40;
+    private static final int PENDING_SHIFT = 41;
+
+    private final int rows;
+    private final int columns;
+    private final int threshold;
+    private final OXOPlayer[] players;
+    private final AtomicLongArray cells;
+    private final AtomicLong state = new AtomicLong();
+
+    public OXOSharedModel(int numberOfRows, int numberOfColumns, int winThreshold, OXOPlayer... playersInTurnOrder) {
+        if(numberOfRows < 1 || numberOfColumns < 1 || (long) numberOfRows * numberOfColumns > MAXIMUM_CELLS) {
+            throw new IllegalArgumentException("A shared board holds 1 to " + MAXIMUM_CELLS + " cells");
+        }
+        if(playersInTurnOrder.length < 1 || playersInTurnOrder.length > MAXIMUM_PLAYERS) {
+            throw new IllegalArgumentException("A shared board has 1 to " + MAXIMUM_PLAYERS + " players");
+        }
+        rows = numberOfRows;
+        columns = numberOfColumns;
+        threshold = winThreshold;
+        players = playersInTurnOrder.clone();
+        cells = new AtomicLongArray((rows * columns + CELLS_PER_WORD - 1) / CELLS_PER_WORD);
+    }
+
+    public int getNumberOfRows() {
+        return rows;
+    }
+
+    public int getNumberOfColumns() {
+        return columns;
+    }
+
+    public int getWinThreshold() {
+        return threshold;
+    }
+
+    public int getNumberOfPlayers() {
+        return players.length;
+    }
+
+    public OXOPlayer getPlayerByNumber(int number) {
+        return players[number];
+    }
+
+    // Claims the cell for the player if it is their turn and the cell is free. Safe to call from any thread.
+    public OXOMoveResult claim(int playerNumber, int rowIndex, int colIndex) {
+        if(rowIndex < 0 || rowIndex >= rows) return OXOMoveResult.ROW_OUT_OF_RANGE;
+        if(colIndex < 0 || colIndex >= columns) return OXOMoveResult.COLUMN_OUT_OF_RANGE;
+        int cell = rowIndex * columns + colIndex;
+        while(true){
+            long current = state.get();
+            if(pendingCell(current) >= 0) {
+                complete(current);
+                continue;
+            }
+            if(winnerNumber(current) >= 0 || (current & DRAWN) != 0) return OXOMoveResult.GAME_OVER;
+            if(turn(current) != playerNumber) return OXOMoveResult.WRONG_TURN;
+            if(ownerOf(cell) >= 0) return OXOMoveResult.CELL_TAKEN;
+            // No other move can happen between the checks above and this CAS without changing the ply
+            long claiming = current | (long) (cell + 1) << PENDING_SHIFT;
+            if(state.compareAndSet(current, claiming)) {
+                complete(claiming);
+                // Another thread may have finished the move, and play may have gone on since, but a game that
+                // ended on this move stays at its ply
+                long after = state.get();
+                if(ply(after) == ply(current) + 1) {
+                    if(winnerNumber(after) >= 0) return OXOMoveResult.WON;
+                    if((after & DRAWN) != 0) return OXOMoveResult.DRAWN;
+                }
+                return OXOMoveResult.MOVE_MADE;
+            }
+        }
+    }
+
+    // Finishes the move in progress in the state. Every thread that tries reaches the same result, because nothing
+    // else can change the board until the state moves on, and only the first CAS of the state counts.
+    private void complete(long claiming) {
+        int cell = pendingCell(claiming), mover = turn(claiming);
+        int word = cell / CELLS_PER_WORD, shift = cell % CELLS_PER_WORD * BITS_PER_CELL;
+        long value = cells.get(word);
+        while((value >>> shift & CELL_MASK) == 0){
+            if(cells.compareAndSet(word, value, value | (long) (mover + 1) << shift)) break;
+            value = cells.get(word);
+        }
+        long next = ply(claiming) + 1;
+        if(hasLineThrough(mover, cell)) next |= (long) (mover + 1) << WINNER_SHIFT | (long) mover << TURN_SHIFT;
+        else if(next == (long) rows * columns) next |= DRAWN | (long) mover << TURN_SHIFT;
+        else next |= (long) ((mover + 1) % players.length) << TURN_SHIFT;
+        state.compareAndSet(claiming, next);
+    }
+
+    // Number of moves made so far
+    public int getPly() {
+        return ply(settledState());
+    }
+
+    public int getCurrentPlayerNumber() {
+        return turn(settledState());
+    }
+
+    public OXOPlayer getWinner() {
+        int winner = winnerNumber(settledState());
+        return winner < 0 ? null : players[winner];
+    }
+
+    public boolean isGameDrawn() {
+        return (settledState() & DRAWN) != 0;
+    }
+
+    // Owner of a single cell as it is right now, or null if it is empty
+    public OXOPlayer getCellOwner(int rowNumber, int colNumber) {
+        if(rowNumber < 0 || rowNumber >= rows || colNumber < 0 || colNumber >= columns) {
+            throw new IndexOutOfBoundsException("Cell [" + rowNumber + "," + colNumber + "] is outside the board");
+        }
+        int owner = ownerOf(rowNumber * columns + colNumber);
+        return owner < 0 ? null : players[owner];
+    }
+
+    // A consistent copy of the whole game at one ply. Writers are never held up: the cells are copied between two
+    // reads of the state and the copy is retried if a move finished in between.
+    public Snapshot snapshot() {
+        long[] copy = new long[cells.length()];
+        while(true){
+            long before = state.get();
+            for(int i = 0; i < copy.length; i++) copy[i] = cells.get(i);
+            if(state.get() != before) continue;
+            int pending = pendingCell(before);
+            // A move in progress may or may not have reached the cells yet, so the copy is taken from before it
+            if(pending >= 0) copy[pending / CELLS_PER_WORD] &= ~(CELL_MASK << pending % CELLS_PER_WORD * BITS_PER_CELL);
+            return new Snapshot(this, copy, before & ~(-1L << PENDING_SHIFT));
+        }
+    }
+
+    // The state with any move in progress finished, so the getters never report a half made move
+    private long settledState() {
+        long current = state.get();
+        while(pendingCell(current) >= 0){
+            complete(current);
+            current = state.get();
+        }
+        return current;
+    }
+
+    private int ownerOf(int cell) {
+        return (int) (cells.get(cell / CELLS_PER_WORD) >>> cell % CELLS_PER_WORD * BITS_PER_CELL & CELL_MASK) - 1;
+    }
+
+    private boolean hasLineThrough(int player, int cell) {
+        int row = cell / columns, col = cell % columns;
+        return 1 + countRun(player, row, col, 0, 1) + countRun(player, row, col, 0, -1) >= threshold
+            || 1 + countRun(player, row, col, 1, 0) + countRun(player, row, col, -1, 0) >= threshold
+            || 1 + countRun(player, row, col, 1, 1) + countRun(player, row, col, -1, -1) >= threshold
+            || 1 + countRun(player, row, col, 1, -1) + countRun(player, row, col, -1, 1) >= threshold;
+    }
+
+    private int countRun(int player, int row, int col, int rowStep, int colStep) {
+        int count = 0;
+        int i = row + rowStep, j = col + colStep;
+        while(i >= 0 && i < rows && j >= 0 && j < columns && ownerOf(i * columns + j) == player){
+            count++;
+            i += rowStep;
+            j += colStep;
+        }
+        return count;
+    }
+
+    private static int ply(long state) {
+        return (int) (state & PLY_MASK);
+    }
+
+    private static int turn(long state) {
+        return (int) (state >>> TURN_SHIFT) & 0xFF;
+    }
+
+    private static int winnerNumber(long state) {
+        return ((int) (state >>> WINNER_SHIFT) & 0xFF) - 1;
+    }
+
+    private static int pendingCell(long state) {
+        return (int) (state >>> PENDING_SHIFT) - 1;
+    }
+
+    // The game as it was at one ply; nothing in it changes
+    public static final class Snapshot {
+        private final OXOSharedModel model;
+        private final long[] cells;
+        private final long state;
+
+        private Snapshot(OXOSharedModel sharedModel, long[] cellWords, long settled) {
+            model = sharedModel;
+            cells = cellWords;
+            state = settled;
+        }
+
+        public int getNumberOfRows() {
+            return model.rows;
+        }
+
+        public int getNumberOfColumns() {
+            return model.columns;
+        }
+
+        public int getPly() {
+            return ply(state);
+        }
+
+        // The player to move, or the winner once the game is won
+        public int getCurrentPlayerNumber() {
+            return turn(state);
+        }
+
+        public OXOPlayer getWinner() {
+            int winner = winnerNumber(state);
+            return winner < 0 ? null : model.players[winner];
+        }
+
+        public boolean isGameDrawn() {
+            return (state & DRAWN) != 0;
+        }
+
+        // Player number owning the cell, or -1 if it was empty
+        public int getOwnerNumber(int rowNumber, int colNumber) {
+            if(rowNumber < 0 || rowNumber >= model.rows || colNumber < 0 || colNumber >= model.columns) {
+                throw new IndexOutOfBoundsException("Cell [" + rowNumber + "," + colNumber + "] is outside the board");
+            }
+            int cell = rowNumber * model.columns + colNumber;
+            return (int) (cells[cell / CELLS_PER_WORD] >>> cell % CELLS_PER_WORD * BITS_PER_CELL & CELL_MASK) - 1;
+        }
+
+        public OXOPlayer getCellOwner(int rowNumber, int colNumber) {
+            int owner = getOwnerNumber(rowNumber, colNumber);
+            return owner < 0 ? null : model.players[owner];
+        }
+    }
+}
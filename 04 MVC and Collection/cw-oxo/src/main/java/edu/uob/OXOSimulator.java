@@ -0,0 +1,169 @@
+package edu.uob;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+// Headless batch runner: plays many games with no GUI, spread over worker threads that each own a model and controller.
+// Usage: OXOSimulator [games] [rows] [columns] [threshold] [players] [threads] [strategy for each player...]
+// where a strategy is either "random" or "script:a1,b2,c3" (the first empty cell in the list, then random moves)
+public class OXOSimulator {
+    private static final char[] LETTERS = "XOABCDEFGHIJKLMNPQRSTUVWYZ".toCharArray();
+    // Workers take games off the shared counter in blocks to keep contention low
+    private static final int BLOCK_SIZE = 1024;
+
+    private final int rows;
+    private final int columns;
+    private final int threshold;
+    private final int players;
+    // Builds a fresh strategy for (worker number * players + player number), since strategies may keep state
+    private IntFunction<OXOStrategy> strategies;
+
+    public static void main(String[] args) throws InterruptedException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int columns = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int threshold = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int players = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        String[] specs = new String[players];
+        for(int i = 0; i < players; i++){
+            specs[i] = args.length > 6 + i ? args[6 + i] : "random";
+        }
+
+        OXOSimulator simulator = new OXOSimulator(rows, columns, threshold, players);
+        simulator.setStrategies(id -> createStrategy(specs[id % players], id));
+        System.out.println("Playing " + games + " games of " + rows + "x" + columns + " (threshold " + threshold + ", " + players + " players) on " + threads + " threads");
+        System.out.println(simulator.run(games, threads));
+    }
+
+    private static OXOStrategy createStrategy(String spec, long seed) {
+        OXORandomStrategy random = new OXORandomStrategy(System.nanoTime() ^ (seed * 0x9E3779B97F4A7C15L));
+        if(spec.equals("random")) return random;
+        if(spec.startsWith("script:")) return new OXOScriptedStrategy(random, spec.substring(7).split(","));
+        throw new IllegalArgumentException("Unknown strategy " + spec);
+    }
+
+    public OXOSimulator(int numberOfRows, int numberOfColumns, int winThreshold, int numberOfPlayers) {
+        if(numberOfPlayers > LETTERS.length) throw new IllegalArgumentException("At most " + LETTERS.length + " players are supported");
+        rows = numberOfRows;
+        columns = numberOfColumns;
+        threshold = winThreshold;
+        players = numberOfPlayers;
+        strategies = id -> new OXORandomStrategy(System.nanoTime() ^ (id * 0x9E3779B97F4A7C15L));
+    }
+
+    public void setStrategies(IntFunction<OXOStrategy> factory) {
+        strategies = factory;
+    }
+
+    public Result run(long games, int threads) throws InterruptedException {
+        AtomicLong remaining = new AtomicLong(games);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ArrayList<Future<Result>> futures = new ArrayList<Future<Result>>();
+        long start = System.nanoTime();
+        for(int i = 0; i < threads; i++){
+            int worker = i;
+            futures.add(executor.submit(() -> playGames(worker, remaining)));
+        }
+        executor.shutdown();
+
+        Result total = new Result(players);
+        try {
+            for(Future<Result> future : futures){
+                total.add(future.get());
+            }
+        } catch (ExecutionException exception) {
+            executor.shutdownNow();
+            throw new IllegalStateException("Simulation worker failed", exception.getCause());
+        }
+        total.nanos = System.nanoTime() - start;
+        return total;
+    }
+
+    private Result playGames(int worker, AtomicLong remaining) {
+        OXOModel model = new OXOModel(rows, columns, threshold);
+        OXOStrategy[] strategy = new OXOStrategy[players];
+        for(int i = 0; i < players; i++){
+            model.addPlayer(new OXOPlayer(LETTERS[i]));
+            strategy[i] = strategies.apply(worker * players + i);
+        }
+        OXOController controller = new OXOController(model);
+        Result result = new Result(players);
+
+        long block;
+        while((block = Math.min(BLOCK_SIZE, remaining.getAndAdd(-BLOCK_SIZE))) > 0){
+            for(long game = 0; game < block; game++){
+                controller.reset();
+                while(model.getWinner() == null && !model.isGameDrawn()){
+                    String move = strategy[model.getCurrentPlayerNumber()].chooseMove(model);
+                    if(move == null) throw new IllegalStateException("Player " + model.getCurrentPlayerNumber() + " did not choose a move");
+                    if(controller.tryMove(move).isRejected()) throw new IllegalStateException("Player " + model.getCurrentPlayerNumber() + " chose an illegal move " + move);
+                    result.moves++;
+                }
+                result.games++;
+                if(model.getWinner() != null) result.wins[model.getSlot(model.getWinner())]++;
+                else result.draws++;
+            }
+        }
+        return result;
+    }
+
+    public static class Result {
+        private long games;
+        private long moves;
+        private long draws;
+        private final long[] wins;
+        private long nanos;
+
+        private Result(int numberOfPlayers) {
+            wins = new long[numberOfPlayers];
+        }
+
+        private void add(Result other) {
+            games += other.games;
+            moves += other.moves;
+            draws += other.draws;
+            for(int i = 0; i < wins.length; i++) wins[i] += other.wins[i];
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public long getWins(int playerNumber) {
+            return wins[playerNumber];
+        }
+
+        public double getGamesPerSecond() {
+            return games / (nanos / 1e9);
+        }
+
+        public double getAverageGameLength() {
+            return games == 0 ? 0 : (double) moves / games;
+        }
+
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("%d games in %.2f s (%.0f games/s), average length %.2f moves%n", games, nanos / 1e9, getGamesPerSecond(), getAverageGameLength()));
+            for(int i = 0; i < wins.length; i++){
+                builder.append(String.format("  Player %c wins: %d (%.2f%%)%n", LETTERS[i], wins[i], percentage(wins[i])));
+            }
+            builder.append(String.format("  Draws: %d (%.2f%%)", draws, percentage(draws)));
+            return builder.toString();
+        }
+
+        private double percentage(long count) {
+            return games == 0 ? 0 : 100.0 * count / games;
+        }
+    }
+}
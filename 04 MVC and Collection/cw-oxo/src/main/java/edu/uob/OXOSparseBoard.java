@@ -0,0 +1,194 @@
+package edu.uob;
+
+import java.util.Arrays;
+
+// Storage for very large boards (Gomoku sized and up): only claimed cells are kept, in an open addressing hash map
+// from the packed cell (row << 32 | column) to the slot, so memory grows with the number of moves rather than with
+// the area of the board. Lines are found by probing the cells around a move, never by walking the whole board.
+public class OXOSparseBoard implements OXOBoard {
+    private static final long FREE = -1L;
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private int rows;
+    private int columns;
+    private long[] keys;
+    private int[] slots;
+    private int size;
+
+    public OXOSparseBoard(int numberOfRows, int numberOfColumns) {
+        rows = numberOfRows;
+        columns = numberOfColumns;
+        keys = new long[MINIMUM_CAPACITY];
+        slots = new int[MINIMUM_CAPACITY];
+        Arrays.fill(keys, FREE);
+    }
+
+    public boolean supports(int numberOfRows, int numberOfColumns) {
+        return true;
+    }
+
+    public int getNumberOfRows() {
+        return rows;
+    }
+
+    public int getNumberOfColumns() {
+        return columns;
+    }
+
+    // Number of claimed cells
+    public int getNumberOfStones() {
+        return size;
+    }
+
+    public int getOwner(int rowNumber, int colNumber) {
+        checkBounds(rowNumber, colNumber);
+        long key = pack(rowNumber, colNumber);
+        int mask = keys.length - 1;
+        for(int index = indexOf(key); keys[index] != FREE; index = (index + 1) & mask){
+            if(keys[index] == key) return slots[index];
+        }
+        return EMPTY;
+    }
+
+    public void setOwner(int rowNumber, int colNumber, int slot) {
+        checkBounds(rowNumber, colNumber);
+        long key = pack(rowNumber, colNumber);
+        int mask = keys.length - 1;
+        int index = indexOf(key);
+        while(keys[index] != FREE && keys[index] != key) index = (index + 1) & mask;
+        if(slot == EMPTY) {
+            if(keys[index] == key) delete(index);
+            return;
+        }
+        if(keys[index] == FREE) {
+            if(2 * (size + 1) > keys.length) {
+                resize(keys.length * 2);
+                setOwner(rowNumber, colNumber, slot);
+                return;
+            }
+            keys[index] = key;
+            size++;
+        }
+        slots[index] = slot;
+    }
+
+    public boolean isEmpty(int rowNumber, int colNumber) {
+        return getOwner(rowNumber, colNumber) == EMPTY;
+    }
+
+    public void addRow() {
+        rows++;
+    }
+
+    public void addColumn() {
+        columns++;
+    }
+
+    public void removeRow() {
+        rows--;
+        dropOutside();
+    }
+
+    public void removeColumn() {
+        columns--;
+        dropOutside();
+    }
+
+    public void clear() {
+        keys = new long[MINIMUM_CAPACITY];
+        slots = new int[MINIMUM_CAPACITY];
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    // Copies the hash tables, so the cost grows with the number of moves rather than the board area
+    public OXOBoard copy() {
+        OXOSparseBoard copy = new OXOSparseBoard(rows, columns);
+        copy.keys = keys.clone();
+        copy.slots = slots.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    // Only the claimed cells need checking, rather than every cell on the board
+    public int findLineOwner(int threshold) {
+        for(int index = 0; index < keys.length; index++){
+            if(keys[index] == FREE) continue;
+            int rowNumber = (int) (keys[index] >>> 32), colNumber = (int) keys[index];
+            if(hasLineThrough(slots[index], rowNumber, colNumber, threshold)) return slots[index];
+        }
+        return EMPTY;
+    }
+
+    public long findLineOwners(int threshold) {
+        long owners = 0;
+        for(int index = 0; index < keys.length; index++){
+            if(keys[index] == FREE || slots[index] >= 64 || (owners & 1L << slots[index]) != 0) continue;
+            int rowNumber = (int) (keys[index] >>> 32), colNumber = (int) keys[index];
+            if(hasLineThrough(slots[index], rowNumber, colNumber, threshold)) owners |= 1L << slots[index];
+        }
+        return owners;
+    }
+
+    // Removing a row or column clears the cells that were in it
+    private void dropOutside() {
+        for(int index = 0; index < keys.length; index++){
+            if(keys[index] != FREE && ((int) (keys[index] >>> 32) >= rows || (int) keys[index] >= columns)) {
+                resize(keys.length);
+                return;
+            }
+        }
+    }
+
+    // Rehashes every cell still on the board into tables of the given capacity
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[capacity];
+        slots = new int[capacity];
+        Arrays.fill(keys, FREE);
+        size = 0;
+        int mask = capacity - 1;
+        for(int i = 0; i < oldKeys.length; i++){
+            long key = oldKeys[i];
+            if(key == FREE || (int) (key >>> 32) >= rows || (int) key >= columns) continue;
+            int index = indexOf(key);
+            while(keys[index] != FREE) index = (index + 1) & mask;
+            keys[index] = key;
+            slots[index] = oldSlots[i];
+            size++;
+        }
+    }
+
+    // Backward shift deletion: later entries of the same probe run move up so that lookups never stop early
+    private void delete(int index) {
+        int mask = keys.length - 1;
+        int gap = index;
+        for(int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask){
+            int home = indexOf(keys[next]);
+            // Move the entry into the gap unless its home lies cyclically between the gap and where it is now
+            if(((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                slots[gap] = slots[next];
+                gap = next;
+            }
+        }
+        keys[gap] = FREE;
+        size--;
+    }
+
+    private int indexOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    private static long pack(int rowNumber, int colNumber) {
+        return ((long) rowNumber << 32) | colNumber;
+    }
+
+    private void checkBounds(int rowNumber, int colNumber) {
+        if(rowNumber < 0 || rowNumber >= rows || colNumber < 0 || colNumber >= columns) {
+            throw new IndexOutOfBoundsException("Cell [" + rowNumber + "," + colNumber + "] is outside the board");
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package edu.uob;
+
+// Something that picks moves for a player: returns the identifier of the cell to claim (such as "b2")
+public interface OXOStrategy {
+
+    String chooseMove(OXOModel model);
+}
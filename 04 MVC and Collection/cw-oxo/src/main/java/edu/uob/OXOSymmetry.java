@@ -0,0 +1,137 @@
+package edu.uob;
+
+// The rotations and reflections that map a board onto itself (8 for a square board, 4 for a rectangular one), applied
+// to masks of cells with one bit per cell in row order (row * columns + column). Each transform is a permutation of
+// the bits, done a byte at a time: a table holds the image of every value of every byte of the mask, so moving all
+// the cells costs one lookup per 8 cells. A 4x4 mask takes 2 lookups per transform.
+// canonicalForm picks the same representative for all the symmetric copies of a two player position, together with
+// the transform that reaches it, so tables keyed by it hold each position once.
+public final class OXOSymmetry {
+    public static final int MAXIMUM_CELLS = 64;
+    // Largest board whose canonical form (both players' cells and the transform) fits in a long
+    public static final int MAXIMUM_FORM_CELLS = 30;
+    public static final int IDENTITY = 0;
+
+    private static final int FORM_SHIFT = 30;
+    private static final long FORM_MASK = (1L << FORM_SHIFT) - 1;
+    private static final int TRANSFORM_SHIFT = 60;
+
+    private final int rows;
+    private final int columns;
+    private final int bytes;
+    // images[transform][byte index * 256 + byte value] is where the byte's cells go
+    private final long[][] images;
+    private final int[][] cellImages;
+    private final int[] inverses;
+
+    public OXOSymmetry(int numberOfRows, int numberOfColumns) {
+        if(numberOfRows < 1 || numberOfColumns < 1 || numberOfRows * numberOfColumns > MAXIMUM_CELLS) {
+            throw new IllegalArgumentException("Symmetries are only worked out for boards of 1 to " + MAXIMUM_CELLS + " cells");
+        }
+        rows = numberOfRows;
+        columns = numberOfColumns;
+        int cells = rows * columns;
+        bytes = (cells + 7) / 8;
+        int count = rows == columns ? 8 : 4;
+        cellImages = new int[count][cells];
+        images = new long[count][bytes * 256];
+        for(int transform = 0; transform < count; transform++){
+            // Transpose first (square boards only), then flip the rows, then the columns
+            boolean transpose = (transform & 4) != 0, flipRows = (transform & 2) != 0, flipColumns = (transform & 1) != 0;
+            for(int i = 0; i < rows; i++){
+                for(int j = 0; j < columns; j++){
+                    int row = transpose ? j : i, column = transpose ? i : j;
+                    if(flipRows) row = rows - 1 - row;
+                    if(flipColumns) column = columns - 1 - column;
+                    cellImages[transform][i * columns + j] = row * columns + column;
+                }
+            }
+            for(int index = 0; index < bytes; index++){
+                for(int value = 0; value < 256; value++){
+                    long image = 0;
+                    for(int bit = 0; bit < 8 && index * 8 + bit < cells; bit++){
+                        if((value & 1 << bit) != 0) image |= 1L << cellImages[transform][index * 8 + bit];
+                    }
+                    images[transform][index * 256 + value] = image;
+                }
+            }
+        }
+        inverses = new int[count];
+        for(int transform = 0; transform < count; transform++){
+            for(int other = count - 1; other >= 0; other--){
+                boolean undoes = true;
+                for(int cell = 0; cell < cells && undoes; cell++) undoes = cellImages[other][cellImages[transform][cell]] == cell;
+                if(undoes) inverses[transform] = other;
+            }
+        }
+    }
+
+    public int getNumberOfRows() {
+        return rows;
+    }
+
+    public int getNumberOfColumns() {
+        return columns;
+    }
+
+    public int getNumberOfTransforms() {
+        return images.length;
+    }
+
+    // The mask with every cell moved by the transform
+    public long apply(int transform, long cells) {
+        long[] image = images[transform];
+        long result = image[(int) cells & 0xFF];
+        for(int index = 1; index < bytes; index++){
+            result |= image[index * 256 + ((int) (cells >>> index * 8) & 0xFF)];
+        }
+        return result;
+    }
+
+    // Where the transform moves one cell (as row * columns + column)
+    public int applyToCell(int transform, int cell) {
+        return cellImages[transform][cell];
+    }
+
+    // The transform that undoes this one, for mapping a move found on the canonical board back onto the real one
+    public int inverse(int transform) {
+        return inverses[transform];
+    }
+
+    // The symmetric copy of the position with the smallest crosses mask (then the smallest noughts mask), as
+    // transform << 60 | crosses << 30 | noughts; see keyOf, transformOf, crossesOf and noughtsOf.
+    public long canonicalForm(long crosses, long noughts) {
+        if(rows * columns > MAXIMUM_FORM_CELLS) throw new IllegalStateException("Canonical forms only fit boards of up to " + MAXIMUM_FORM_CELLS + " cells");
+        long bestCrosses = crosses, bestNoughts = noughts;
+        int bestTransform = IDENTITY;
+        for(int transform = 1; transform < images.length; transform++){
+            long image = apply(transform, crosses);
+            // The noughts only need moving when the crosses tie
+            if(image > bestCrosses) continue;
+            long noughtsImage = apply(transform, noughts);
+            if(image < bestCrosses || noughtsImage < bestNoughts) {
+                bestCrosses = image;
+                bestNoughts = noughtsImage;
+                bestTransform = transform;
+            }
+        }
+        return (long) bestTransform << TRANSFORM_SHIFT | bestCrosses << FORM_SHIFT | bestNoughts;
+    }
+
+    // The canonical position without the transform, the same for every symmetric copy
+    public static long keyOf(long form) {
+        return form & (1L << TRANSFORM_SHIFT) - 1;
+    }
+
+    public static int transformOf(long form) {
+        return (int) (form >>> TRANSFORM_SHIFT);
+    }
+
+    public static long crossesOf(long form) {
+        return form >>> FORM_SHIFT & FORM_MASK;
+    }
+
+    public static long noughtsOf(long form) {
+        return form & FORM_MASK;
+    }
+}
@@ -0,0 +1,160 @@
+package edu.uob;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Every reachable position of a small two player game, solved, in a file written by OXOTablebaseBuilder:
+//   header:  'O' 'X' 'T' <version> <rows> <columns> <threshold> 0 <number of positions as an int>
+//   keys:    one int per position, sorted: the crosses' cells << 16 | the noughts' cells, one bit per cell in row order
+//   entries: one byte per position, in the same order: outcome << 6 | distance to the end of the game
+// Outcomes are from the point of view of the player to move, who is always the one with fewer cells (X on a tie).
+// Positions are only stored in their canonical form under the board's symmetries (see OXOSymmetry), which cuts the
+// table by up to 8 times. The file is memory mapped, so opening it costs nothing and a lookup is a binary search.
+public class OXOTablebase implements OXOStrategy {
+    static final byte[] MAGIC = { 'O', 'X', 'T', 2 };
+    static final int HEADER_SIZE = 12;
+    public static final int MAXIMUM_CELLS = 16;
+    // Outcomes; a probe that finds nothing returns NOT_FOUND, which has no outcome
+    public static final int NOT_FOUND = 0;
+    public static final int WIN = 1;
+    public static final int LOSS = 2;
+    public static final int DRAW = 3;
+
+    private final int rows;
+    private final int columns;
+    private final int threshold;
+    private final int size;
+    private final IntBuffer keys;
+    private final ByteBuffer entries;
+    private final OXOSymmetry symmetry;
+    private final OXOStrategy fallback;
+
+    public OXOTablebase(Path path) throws IOException {
+        this(path, null);
+    }
+
+    // The fallback strategy (if there is one) plays any game the table does not cover
+    public OXOTablebase(Path path, OXOStrategy fallbackStrategy) throws IOException {
+        fallback = fallbackStrategy;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() < HEADER_SIZE) throw new IOException(path + " is not a tablebase");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for(int i = 0; i < MAGIC.length; i++){
+                if(buffer.get(i) != MAGIC[i]) throw new IOException(path + " is not a tablebase");
+            }
+            rows = buffer.get(4);
+            columns = buffer.get(5);
+            threshold = buffer.get(6);
+            size = buffer.getInt(8);
+            if(rows < 1 || columns < 1 || rows * columns > MAXIMUM_CELLS || size < 1 || channel.size() != HEADER_SIZE + 5L * size) {
+                throw new IOException(path + " is truncated or damaged");
+            }
+            keys = buffer.slice(HEADER_SIZE, 4 * size).asIntBuffer();
+            entries = buffer.slice(HEADER_SIZE + 4 * size, size);
+        }
+        symmetry = new OXOSymmetry(rows, columns);
+    }
+
+    public int getNumberOfRows() {
+        return rows;
+    }
+
+    public int getNumberOfColumns() {
+        return columns;
+    }
+
+    public int getWinThreshold() {
+        return threshold;
+    }
+
+    public int getNumberOfPositions() {
+        return size;
+    }
+
+    // Whether the model is playing the game this table was built for
+    public boolean covers(OXOModel model) {
+        return model.getNumberOfRows() == rows && model.getNumberOfColumns() == columns && model.getWinThreshold() == threshold && model.getNumberOfPlayers() == 2;
+    }
+
+    // The entry for the model's position (see outcomeOf and distanceOf), or NOT_FOUND if the table does not hold it
+    public int probe(OXOModel model) {
+        long key = keyOf(model);
+        return key < 0 ? NOT_FOUND : lookup((int) key);
+    }
+
+    public static int outcomeOf(int entry) {
+        return entry >>> 6;
+    }
+
+    // Plies until the game ends when both sides play on perfectly: the winner as quickly as it can, the loser as slowly
+    public static int distanceOf(int entry) {
+        return entry & 0x3F;
+    }
+
+    // The quickest win, failing that a draw, failing that the slowest loss
+    public String chooseMove(OXOModel model) {
+        if(model.getWinner() != null || model.isGameDrawn() || model.isBoardFull()) return null;
+        long key = keyOf(model);
+        if(key < 0 || lookup((int) key) == NOT_FOUND) return fallback == null ? null : fallback.chooseMove(model);
+
+        int crosses = (int) (key >>> 48), noughts = (int) (key >>> 32) & 0xFFFF;
+        boolean crossToMove = Integer.bitCount(crosses) == Integer.bitCount(noughts);
+        int empty = (1 << rows * columns) - 1 & ~(crosses | noughts);
+        int bestCell = -1, bestRank = -1;
+        while(empty != 0){
+            int cell = Integer.numberOfTrailingZeros(empty);
+            empty &= empty - 1;
+            int child = crossToMove ? canonicalKey(crosses | 1 << cell, noughts, symmetry) : canonicalKey(crosses, noughts | 1 << cell, symmetry);
+            int entry = lookup(child);
+            if(entry == NOT_FOUND) continue;
+            // The entry is from the opponent's point of view
+            int rank = outcomeOf(entry) == LOSS ? 2 * MAXIMUM_CELLS - distanceOf(entry) : outcomeOf(entry) == DRAW ? MAXIMUM_CELLS : distanceOf(entry);
+            if(rank > bestRank){
+                bestRank = rank;
+                bestCell = cell;
+            }
+        }
+        if(bestCell < 0) return fallback == null ? null : fallback.chooseMove(model);
+        return OXOController.cellIdentifier(bestCell / columns, bestCell % columns);
+    }
+
+    // The position's cells as crosses << 48 | noughts << 32 | canonical key, or -1 if the table cannot hold it
+    private long keyOf(OXOModel model) {
+        if(!covers(model)) return -1;
+        int crossSlot = model.getSlot(model.getPlayerByNumber(0)), noughtSlot = model.getSlot(model.getPlayerByNumber(1));
+        int crosses = 0, noughts = 0;
+        for(int i = 0; i < rows; i++){
+            for(int j = 0; j < columns; j++){
+                int slot = model.getBoard().getOwner(i, j);
+                if(slot == crossSlot) crosses |= 1 << i * columns + j;
+                else if(slot == noughtSlot) noughts |= 1 << i * columns + j;
+            }
+        }
+        int difference = Integer.bitCount(crosses) - Integer.bitCount(noughts);
+        if(difference < 0 || difference > 1 || model.getCurrentPlayerNumber() != difference) return -1;
+        return (long) crosses << 48 | (long) noughts << 32 | canonicalKey(crosses, noughts, symmetry) & 0xFFFFFFFFL;
+    }
+
+    private int lookup(int key) {
+        int low = 0, high = size - 1;
+        while(low <= high){
+            int middle = (low + high) >>> 1;
+            int found = keys.get(middle);
+            if(found < key) low = middle + 1;
+            else if(found > key) high = middle - 1;
+            else return entries.get(middle) & 0xFF;
+        }
+        return NOT_FOUND;
+    }
+
+    // The key of the position's canonical form (see OXOSymmetry), as stored in the table
+    static int canonicalKey(int crosses, int noughts, OXOSymmetry symmetry) {
+        long form = symmetry.canonicalForm(crosses, noughts);
+        return (int) (OXOSymmetry.crossesOf(form) << 16 | OXOSymmetry.noughtsOf(form));
+    }
+}
@@ -0,0 +1,243 @@
+package edu.uob;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Writes the OXOTablebase for one board size and threshold. Every move adds a cell, so positions fall into levels by
+// the number of cells filled and each level only leads to the next. The builder first walks forwards, generating
+// each level from the one before, then solves backwards from the full board, each position from its children in the
+// level after. Levels are sorted arrays of canonical keys, so a child is found by binary search; both passes split
+// each level into chunks that run across the worker threads.
+// Usage: OXOTablebaseBuilder <file> [rows] [columns] [threshold] [threads]
+public class OXOTablebaseBuilder {
+    // Chunks per thread, so that a slow chunk does not leave the other threads idle
+    private static final int CHUNKS_PER_THREAD = 8;
+    private static final int MINIMUM_CHUNK = 1024;
+
+    private final int rows;
+    private final int columns;
+    private final int threshold;
+    private final int cells;
+    private final int board;
+    private final int[] lines;
+    private final OXOSymmetry symmetry;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length < 1) {
+            System.out.println("Usage: OXOTablebaseBuilder <file> [rows] [columns] [threshold] [threads]");
+            return;
+        }
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int columns = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int threshold = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        int positions = new OXOTablebaseBuilder(rows, columns, threshold).build(Paths.get(args[0]), threads);
+        System.out.printf("Solved %d positions of %dx%d (threshold %d) on %d threads in %.1f s%n", positions, rows, columns, threshold, threads, (System.nanoTime() - start) / 1e9);
+    }
+
+    public OXOTablebaseBuilder(int numberOfRows, int numberOfColumns, int winThreshold) {
+        if(numberOfRows < 1 || numberOfColumns < 1 || numberOfRows * numberOfColumns > OXOTablebase.MAXIMUM_CELLS) {
+            throw new IllegalArgumentException("Tablebases hold boards of 1 to " + OXOTablebase.MAXIMUM_CELLS + " cells");
+        }
+        rows = numberOfRows;
+        columns = numberOfColumns;
+        threshold = winThreshold;
+        cells = rows * columns;
+        board = (1 << cells) - 1;
+        lines = findLines();
+        symmetry = new OXOSymmetry(rows, columns);
+    }
+
+    // Solves every position reachable from the empty board and writes them to the file, returning how many there are
+    public int build(Path path, int threads) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            int[][] levels = new int[cells + 1][];
+            levels[0] = new int[] { 0 };
+            for(int filled = 0; filled < cells; filled++){
+                levels[filled + 1] = expand(levels[filled], filled % 2 == 0, executor, threads);
+            }
+            byte[][] entries = new byte[cells + 1][];
+            for(int filled = cells; filled >= 0; filled--){
+                entries[filled] = filled == cells ? solve(levels[filled], null, null, true, executor, threads)
+                    : solve(levels[filled], levels[filled + 1], entries[filled + 1], filled % 2 == 0, executor, threads);
+            }
+            return write(path, levels, entries);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Every line of threshold cells on the board, as masks of cells
+    private int[] findLines() {
+        ArrayList<Integer> found = new ArrayList<Integer>();
+        int[][] directions = { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+        for(int i = 0; i < rows; i++){
+            for(int j = 0; j < columns; j++){
+                for(int[] direction : directions){
+                    int endRow = i + direction[0] * (threshold - 1), endColumn = j + direction[1] * (threshold - 1);
+                    if(threshold < 1 || endRow >= rows || endColumn < 0 || endColumn >= columns) continue;
+                    int line = 0;
+                    for(int k = 0; k < threshold; k++) line |= 1 << (i + direction[0] * k) * columns + j + direction[1] * k;
+                    found.add(line);
+                }
+            }
+        }
+        int[] result = new int[found.size()];
+        for(int i = 0; i < result.length; i++) result[i] = found.get(i);
+        return result;
+    }
+
+    private boolean hasLine(int mask) {
+        for(int line : lines){
+            if((mask & line) == line) return true;
+        }
+        return false;
+    }
+
+    private boolean isOver(int key) {
+        return hasLine(key >>> 16) || hasLine(key & 0xFFFF) || ((key >>> 16 | key) & board) == board;
+    }
+
+    // The sorted, distinct canonical keys of every position one move on from a level
+    private int[] expand(int[] level, boolean crossToMove, ExecutorService executor, int threads) throws InterruptedException {
+        int[][] found = inParallel(level.length, threads, executor, (from, to) -> {
+            int[] children = new int[Math.max(16, (to - from) * 4)];
+            int count = 0;
+            for(int index = from; index < to; index++){
+                int key = level[index];
+                if(isOver(key)) continue;
+                int crosses = key >>> 16, noughts = key & 0xFFFF;
+                int empty = board & ~(crosses | noughts);
+                while(empty != 0){
+                    int cell = empty & -empty;
+                    empty ^= cell;
+                    if(count == children.length) children = Arrays.copyOf(children, count * 2);
+                    children[count++] = crossToMove ? OXOTablebase.canonicalKey(crosses | cell, noughts, symmetry) : OXOTablebase.canonicalKey(crosses, noughts | cell, symmetry);
+                }
+            }
+            Arrays.sort(children, 0, count);
+            return distinct(children, count);
+        });
+        int total = 0;
+        for(int[] chunk : found) total += chunk.length;
+        int[] merged = new int[total];
+        total = 0;
+        for(int[] chunk : found){
+            System.arraycopy(chunk, 0, merged, total, chunk.length);
+            total += chunk.length;
+        }
+        Arrays.parallelSort(merged);
+        return distinct(merged, merged.length);
+    }
+
+    // The first count keys, which must be sorted, without repeats
+    private static int[] distinct(int[] keys, int count) {
+        int unique = 0;
+        for(int i = 0; i < count; i++){
+            if(unique == 0 || keys[i] != keys[unique - 1]) keys[unique++] = keys[i];
+        }
+        return Arrays.copyOf(keys, unique);
+    }
+
+    // The entry (see OXOTablebase) of every position in a level, given the entries of the level after
+    private byte[] solve(int[] level, int[] next, byte[] nextEntries, boolean crossToMove, ExecutorService executor, int threads) throws InterruptedException {
+        byte[] solved = new byte[level.length];
+        inParallel(level.length, threads, executor, (from, to) -> {
+            for(int index = from; index < to; index++){
+                int key = level[index];
+                int crosses = key >>> 16, noughts = key & 0xFFFF;
+                // Play stops at the first line, so a line can only belong to the player who has just moved
+                if(hasLine(crosses) || hasLine(noughts)) solved[index] = entry(OXOTablebase.LOSS, 0);
+                else if(((crosses | noughts) & board) == board) solved[index] = entry(OXOTablebase.DRAW, 0);
+                else solved[index] = solveFromChildren(crosses, noughts, crossToMove, next, nextEntries);
+            }
+            return null;
+        });
+        return solved;
+    }
+
+    private byte solveFromChildren(int crosses, int noughts, boolean crossToMove, int[] next, byte[] nextEntries) {
+        int fastestWin = Integer.MAX_VALUE, drawDistance = -1, slowestLoss = -1;
+        int empty = board & ~(crosses | noughts);
+        while(empty != 0){
+            int cell = empty & -empty;
+            empty ^= cell;
+            int child = crossToMove ? OXOTablebase.canonicalKey(crosses | cell, noughts, symmetry) : OXOTablebase.canonicalKey(crosses, noughts | cell, symmetry);
+            int index = Arrays.binarySearch(next, child);
+            if(index < 0) throw new IllegalStateException("Position " + Integer.toHexString(child) + " was never generated");
+            int entry = nextEntries[index] & 0xFF, distance = OXOTablebase.distanceOf(entry) + 1;
+            // Entries are from the point of view of the opponent, who moves next
+            switch(OXOTablebase.outcomeOf(entry)) {
+                case OXOTablebase.LOSS: fastestWin = Math.min(fastestWin, distance); break;
+                case OXOTablebase.DRAW: drawDistance = Math.max(drawDistance, distance); break;
+                default: slowestLoss = Math.max(slowestLoss, distance);
+            }
+        }
+        if(fastestWin != Integer.MAX_VALUE) return entry(OXOTablebase.WIN, fastestWin);
+        if(drawDistance >= 0) return entry(OXOTablebase.DRAW, drawDistance);
+        return entry(OXOTablebase.LOSS, slowestLoss);
+    }
+
+    private static byte entry(int outcome, int distance) {
+        return (byte) (outcome << 6 | distance);
+    }
+
+    // Sorts the levels' keys together, carrying their entries with them, and writes the file
+    private int write(Path path, int[][] levels, byte[][] entries) throws IOException {
+        int total = 0;
+        for(int[] level : levels) total += level.length;
+        // Key above entry, so sorting the packed longs sorts by key
+        long[] packed = new long[total];
+        total = 0;
+        for(int filled = 0; filled <= cells; filled++){
+            for(int i = 0; i < levels[filled].length; i++) packed[total++] = (long) levels[filled][i] << 8 | entries[filled][i] & 0xFF;
+        }
+        Arrays.parallelSort(packed);
+
+        try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            output.write(OXOTablebase.MAGIC);
+            output.write(rows);
+            output.write(columns);
+            output.write(threshold);
+            output.write(0);
+            output.writeInt(total);
+            for(long record : packed) output.writeInt((int) (record >> 8));
+            for(long record : packed) output.write((int) record & 0xFF);
+        }
+        return total;
+    }
+
+    private interface Chunk {
+        int[] run(int from, int to);
+    }
+
+    // Runs the task over [0, length) in chunks on the executor, returning each chunk's result in order
+    private static int[][] inParallel(int length, int threads, ExecutorService executor, Chunk task) throws InterruptedException {
+        int chunks = Math.max(1, Math.min(threads * CHUNKS_PER_THREAD, length / MINIMUM_CHUNK));
+        ArrayList<Future<int[]>> futures = new ArrayList<Future<int[]>>();
+        for(int chunk = 0; chunk < chunks; chunk++){
+            int from = (int) ((long) length * chunk / chunks), to = (int) ((long) length * (chunk + 1) / chunks);
+            futures.add(executor.submit(() -> task.run(from, to)));
+        }
+        int[][] results = new int[chunks][];
+        try {
+            for(int chunk = 0; chunk < chunks; chunk++) results[chunk] = futures.get(chunk).get();
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Tablebase worker failed", exception.getCause());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,65 @@
+package edu.uob;
+
+import java.util.Arrays;
+
+// Fixed size hash table of search results keyed by position hash. Every entry is two longs: the full hash and
+// a packed record of score (32 bits), depth (8 bits), bound type (2 bits) and best move (8 bits).
+// A new result always replaces the old one in its slot.
+// The table can be shared by several searching threads without locking: each key is stored XORed with its record,
+// so an entry torn by two threads writing the same slot at once no longer matches the hash and simply reads as a miss.
+public class OXOTranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+    public static final int NO_MOVE = 0xFF;
+
+    private final long[] keys;
+    private final long[] records;
+    private final int mask;
+
+    // The table holds 2^sizeBits entries (16 bytes each)
+    public OXOTranspositionTable(int sizeBits) {
+        keys = new long[1 << sizeBits];
+        records = new long[1 << sizeBits];
+        mask = (1 << sizeBits) - 1;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(records, 0L);
+    }
+
+    public void store(long hash, int depth, int score, int bound, int bestMove) {
+        int index = (int) hash & mask;
+        long record = pack(depth, score, bound, bestMove);
+        keys[index] = hash ^ record;
+        records[index] = record;
+    }
+
+    // The packed record for the position, or 0 if the table does not hold it
+    public long probe(long hash) {
+        int index = (int) hash & mask;
+        long record = records[index];
+        return (keys[index] ^ record) == hash ? record : 0L;
+    }
+
+    public static long pack(int depth, int score, int bound, int bestMove) {
+        return ((long) score << 32) | ((long) (depth & 0xFF) << 16) | ((long) bound << 8) | (bestMove & 0xFF);
+    }
+
+    public static int scoreOf(long record) {
+        return (int) (record >> 32);
+    }
+
+    public static int depthOf(long record) {
+        return (int) (record >>> 16) & 0xFF;
+    }
+
+    public static int boundOf(long record) {
+        return (int) (record >>> 8) & 0x3;
+    }
+
+    public static int bestMoveOf(long record) {
+        return (int) record & 0xFF;
+    }
+}
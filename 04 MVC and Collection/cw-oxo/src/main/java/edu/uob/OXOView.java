@@ -3,70 +3,194 @@ package edu.uob;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.io.Serial;
 import javax.swing.JPanel;
 
-public class OXOView extends JPanel {
+// The grid lines and labels are drawn once into a background image, which is only rebuilt when the panel or the
+// board changes size. The view listens to the model and asks Swing to repaint just the cells (and the message)
+// that changed, so a move costs a couple of small blits rather than a full redraw.
+public class OXOView extends JPanel implements OXOModelListener {
     @Serial private static final long serialVersionUID = 1;
     private static int FONT_SIZE = 20;
     private static Font FONT = new Font("SansSerif", Font.PLAIN, FONT_SIZE);
     private static int MARGIN = 50;
 
-    private OXOModel model;
+    private transient OXOModel model;
+    // What is painted: the latest snapshot of the model, so painting never reads the live game as it changes
+    private transient volatile OXOBoardSnapshot shown;
+    private transient BufferedImage background;
+    private int backgroundRows;
+    private int backgroundColumns;
+    // Every player's letter pre-rendered side by side (one tile per board slot), and where each row and column's
+    // tiles go; all of these are rebuilt with the background
+    private transient BufferedImage glyphs;
+    private int glyphCount;
+    private int[] columnX = new int[0];
+    private int[] rowY = new int[0];
 
+    // The view redraws itself whenever the model tells it something changed
+    @SuppressWarnings("this-escape")
     public OXOView(OXOModel mod) {
         model = mod;
+        shown = model.snapshot();
+        model.addListener(this);
+    }
+
+    // Repaints just the cells that changed (and the message, which names the player to move), or everything once
+    // the board has been reset or resized
+    public void modelChanged(OXOModelEvent event) {
+        shown = model.snapshot();
+        if(event.affectsWholeBoard()) {
+            repaint();
+            return;
+        }
+        for(int i = 0; i < event.getNumberOfCells(); i++){
+            repaint(cellBounds(event.getRow(i), event.getColumn(i)));
+        }
+        if(event.getNumberOfCells() > 0 || event.has(OXOModelEvent.Type.PLAYER_CHANGED) || event.has(OXOModelEvent.Type.PLAYERS_CHANGED)
+                || event.has(OXOModelEvent.Type.WINNER_CHANGED) || event.has(OXOModelEvent.Type.DRAW_CHANGED)) {
+            repaint(messageBounds());
+        }
+    }
+
+    // Area a cell's letter can cover (the same as its glyph tile)
+    private Rectangle cellBounds(int rowNumber, int colNumber) {
+        float horiSpacing = (float)(getWidth()-MARGIN*2) / shown.getNumberOfColumns();
+        float vertSpacing = (float)(getHeight()-MARGIN*2) / shown.getNumberOfRows();
+        int xpos = (int) (((float) MARGIN) + 2 - (FONT_SIZE / 2) + (horiSpacing * (colNumber + 0.5f)));
+        int ypos = (int) (((float) MARGIN) + (FONT_SIZE / 2) + (vertSpacing * (rowNumber + 0.5f)));
+        return new Rectangle(xpos - 2, ypos - FONT_SIZE - 2, FONT_SIZE + 4, FONT_SIZE + 8);
+    }
+
+    private Rectangle messageBounds() {
+        return new Rectangle(0, getHeight() - 10 - FONT_SIZE - 2, getWidth(), FONT_SIZE + 12);
     }
 
     protected void paintComponent(Graphics g) {
         g.setFont(FONT);
+        OXOBoardSnapshot board = shown;
+        int rows = board.getNumberOfRows(), columns = board.getNumberOfColumns();
+        if(background == null || background.getWidth() != getWidth() || background.getHeight() != getHeight()
+                || backgroundRows != rows || backgroundColumns != columns) {
+            drawBackground(rows, columns);
+        }
+
+        // Swing has set the clip to the dirty region, so only that part of the background is copied
+        g.drawImage(background, 0, 0, null);
+
+        float horiSpacing = (float)(getWidth()-MARGIN*2) / columns;
+        float vertSpacing = (float)(getHeight()-MARGIN*2) / rows;
+        Rectangle clip = g.getClipBounds();
+        if(clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+        // Draw the board state, for the cells whose letters reach into the clip, by copying their glyphs
+        int firstCol = Math.max(0, (int) ((clip.x - MARGIN - FONT_SIZE) / horiSpacing) - 1);
+        int lastCol = Math.min(columns - 1, (int) ((clip.x + clip.width - MARGIN + FONT_SIZE) / horiSpacing) + 1);
+        int firstRow = Math.max(0, (int) ((clip.y - MARGIN - FONT_SIZE) / vertSpacing) - 1);
+        int lastRow = Math.min(rows - 1, (int) ((clip.y + clip.height - MARGIN + FONT_SIZE) / vertSpacing) + 1);
+        int glyphWidth = FONT_SIZE + 4, glyphHeight = FONT_SIZE + 8;
+        for (int colNumber = firstCol; colNumber <= lastCol; colNumber++) {
+            for (int rowNumber = firstRow; rowNumber <= lastRow; rowNumber++) {
+                int slot = board.getSlot(rowNumber, colNumber);
+                if (slot == OXOBoard.EMPTY) continue;
+                if (slot >= glyphCount) drawGlyphs(board, slot + 1);
+                int x = columnX[colNumber], y = rowY[rowNumber];
+                g.drawImage(glyphs, x, y, x + glyphWidth, y + glyphHeight, slot * glyphWidth, 0, (slot + 1) * glyphWidth, glyphHeight, null);
+            }
+        }
+
+        if (!clip.intersects(messageBounds())) return;
+        String message;
+        if (board.getWinner() != null) message = "Player " + board.getWinner().getPlayingLetter() + " is the winner !";
+        else if (board.isGameDrawn()) message = "Stalemate - game is a draw !";
+        else message = "Player " + board.getPlayerByNumber(board.getCurrentPlayerNumber()).getPlayingLetter() + "'s turn";
+
+        // Draw the message near the bottom of the screen
+        g.setColor(Color.BLACK);
+        g.drawString(message, 7, getHeight() - 10);
+    }
+
+    // The parts of the board that only change with its size: the grid lines and the row and column labels
+    private void drawBackground(int rows, int columns) {
+        if(background == null || background.getWidth() != getWidth() || background.getHeight() != getHeight()) {
+            background = new BufferedImage(Math.max(1, getWidth()), Math.max(1, getHeight()), BufferedImage.TYPE_INT_RGB);
+        }
+        backgroundRows = rows;
+        backgroundColumns = columns;
+        glyphs = null;
+        glyphCount = 0;
+        layOutCells(rows, columns);
+        Graphics2D g = background.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(FONT);
 
         // Clear the whole board
         g.setColor(Color.WHITE);
         g.fillRect(0, 0, getWidth(), getHeight());
 
-        float horiSpacing = (float)(getWidth()-MARGIN*2) / model.getNumberOfColumns();
-        float vertSpacing = (float)(getHeight()-MARGIN*2) / model.getNumberOfRows();
+        float horiSpacing = (float)(getWidth()-MARGIN*2) / columns;
+        float vertSpacing = (float)(getHeight()-MARGIN*2) / rows;
 
         // Draw horizontal lines
         g.setColor(Color.BLACK);
-        for (int i = 0; i < model.getNumberOfRows() - 1; i++) {
+        for (int i = 0; i < rows - 1; i++) {
             g.drawLine(MARGIN, (int)(MARGIN+vertSpacing*(i+1)), getWidth()-MARGIN, (int)(MARGIN+vertSpacing*(i+1)));
         }
         // Draw vertical lines
-        for (int i = 0; i < model.getNumberOfColumns() - 1; i++) {
+        for (int i = 0; i < columns - 1; i++) {
             g.drawLine((int)(MARGIN+horiSpacing*(i+1)), MARGIN, (int)(MARGIN+horiSpacing*(i+1)), getHeight()-MARGIN);
         }
 
         // Draw the row labels
         g.setColor(Color.LIGHT_GRAY);
-        for (int i = 0; i < model.getNumberOfRows(); i++) {
-            g.drawString("" + (char)('a'+i), MARGIN/2, (int)(MARGIN-2+(FONT_SIZE/2.0f)+vertSpacing*(i+0.5)));
+        for (int i = 0; i < rows; i++) {
+            // Labels longer than one letter (aa, ab, ...) are right aligned against the board
+            String label = OXOController.rowLabel(i);
+            int xpos = Math.min(MARGIN/2, MARGIN - 4 - g.getFontMetrics().stringWidth(label));
+            g.drawString(label, xpos, (int)(MARGIN-2+(FONT_SIZE/2.0f)+vertSpacing*(i+0.5)));
         }
 
         // Draw the column labels
-        g.setColor(Color.LIGHT_GRAY);
-        for (int i = 0; i < model.getNumberOfColumns(); i++) {
-            g.drawString("" + (char)('1'+i), (int)(MARGIN+2-(FONT_SIZE/2.0f)+horiSpacing*(i+0.5)), (int)((MARGIN/2)+(FONT_SIZE/2.0f)));
+        for (int i = 0; i < columns; i++) {
+            String label = Integer.toString(i+1);
+            int width = g.getFontMetrics().stringWidth(label);
+            g.drawString(label, (int)(MARGIN+2-(width/2.0f)+horiSpacing*(i+0.5)), (int)((MARGIN/2)+(FONT_SIZE/2.0f)));
         }
+        g.dispose();
+    }
 
-        // Draw the board state
-        g.setColor(Color.BLACK);
-        for (int colNumber = 0; colNumber < model.getNumberOfColumns(); colNumber++) {
-            for (int rowNumber = 0; rowNumber < model.getNumberOfRows(); rowNumber++) {
-                int xpos = (int) (((float) MARGIN) + 2 - (FONT_SIZE / 2) + (horiSpacing * (colNumber + 0.5f)));
-                int ypos = (int) (((float) MARGIN) + (FONT_SIZE / 2) + (vertSpacing * (rowNumber + 0.5f)));
-                OXOPlayer cellOwner = model.getCellOwner(rowNumber, colNumber);
-                if (cellOwner != null) g.drawString("" + cellOwner.getPlayingLetter(), xpos, ypos);
-            }
+    // Top left corner of the glyph tile for every column and row, matching where the letter used to be drawn
+    private void layOutCells(int rows, int columns) {
+        float horiSpacing = (float)(getWidth()-MARGIN*2) / columns;
+        float vertSpacing = (float)(getHeight()-MARGIN*2) / rows;
+        if(columnX.length != columns) columnX = new int[columns];
+        if(rowY.length != rows) rowY = new int[rows];
+        for (int colNumber = 0; colNumber < columns; colNumber++) {
+            columnX[colNumber] = (int) (((float) MARGIN) + 2 - (FONT_SIZE / 2) + (horiSpacing * (colNumber + 0.5f))) - 2;
         }
-        String message;
-        if (model.getWinner() != null) message = "Player " + model.getWinner().getPlayingLetter() + " is the winner !";
-        else if (model.isGameDrawn()) message = "Stalemate - game is a draw !";
-        else message = "Player " + model.getPlayerByNumber(model.getCurrentPlayerNumber()).getPlayingLetter() + "'s turn";
+        for (int rowNumber = 0; rowNumber < rows; rowNumber++) {
+            rowY[rowNumber] = (int) (((float) MARGIN) + (FONT_SIZE / 2) + (vertSpacing * (rowNumber + 0.5f))) - FONT_SIZE - 2;
+        }
+    }
 
-        // Draw the message near the bottom of the screen
+    // Renders the letters of the first count board slots into the atlas
+    private void drawGlyphs(OXOBoardSnapshot board, int count) {
+        int glyphWidth = FONT_SIZE + 4, glyphHeight = FONT_SIZE + 8;
+        glyphs = new BufferedImage(glyphWidth * count, glyphHeight, BufferedImage.TYPE_INT_ARGB);
+        glyphCount = count;
+        Graphics2D g = glyphs.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(FONT);
         g.setColor(Color.BLACK);
-        g.drawString(message, 7, getHeight() - 10);
+        char[] letter = new char[1];
+        for (int slot = 0; slot < count; slot++) {
+            letter[0] = board.getPlayerBySlot(slot).getPlayingLetter();
+            g.drawChars(letter, 0, 1, slot * glyphWidth + 2, FONT_SIZE + 2);
+        }
+        g.dispose();
     }
 }
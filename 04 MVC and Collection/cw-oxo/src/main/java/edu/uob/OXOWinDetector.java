@@ -0,0 +1,168 @@
+package edu.uob;
+
+// Finds k-in-a-row runs in the 128 bit player masks of an OXOBitBoard.
+// A run of length n starting at cell p is found by repeatedly ANDing the mask with itself shifted by one step
+// in the chosen direction, and the edge masks stop a run stepping off one row and back in on the next.
+public final class OXOWinDetector {
+    private static final int SIZES = OXOBitBoard.MAX_SIZE + 1;
+    // Bit offsets of the four line directions: across, down, down-right and down-left
+    private static final int[] STEPS = { 1, OXOBitBoard.STRIDE, OXOBitBoard.STRIDE + 1, OXOBitBoard.STRIDE - 1 };
+    private static final int[] ROW_STEPS = { 0, 1, 1, 1 };
+    private static final int[] COLUMN_STEPS = { 1, 0, 1, -1 };
+    // For every (rows, columns) size and direction, the cells whose next cell in that direction is on the board
+    private static final long[] EDGE_LOW = new long[SIZES * SIZES * STEPS.length];
+    private static final long[] EDGE_HIGH = new long[SIZES * SIZES * STEPS.length];
+
+    static {
+        for(int rows = 0; rows < SIZES; rows++){
+            for(int columns = 0; columns < SIZES; columns++){
+                for(int direction = 0; direction < STEPS.length; direction++){
+                    int index = edgeIndex(rows, columns, direction);
+                    for(int row = 0; row < rows; row++){
+                        for(int col = 0; col < columns; col++){
+                            if(hasNeighbour(rows, columns, row, col, direction)){
+                                int bit = row * OXOBitBoard.STRIDE + col;
+                                if(bit < 64) EDGE_LOW[index] |= 1L << bit;
+                                else EDGE_HIGH[index] |= 1L << (bit - 64);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private OXOWinDetector() {}
+
+    public static boolean hasLine(long low, long high, int rows, int columns, int threshold) {
+        if((low | high) == 0) return false;
+        if(threshold <= 1) return true;
+        if(threshold > Math.max(rows, columns)) return false;
+
+        for(int direction = 0; direction < STEPS.length; direction++){
+            if(direction >= 2 && threshold > Math.min(rows, columns)) break;
+            if(hasRun(low, high, edgeIndex(rows, columns, direction), STEPS[direction], threshold)) return true;
+        }
+        return false;
+    }
+
+    // Whole board query for every player at once: bit s of the result is set if slot s owns a line (slots 64 and up
+    // are not checked). Each direction's edge masks are looked up once and applied to all the slots still without a line.
+    public static long findLineOwners(OXOBitBoard board, int threshold) {
+        int rows = board.getNumberOfRows(), columns = board.getNumberOfColumns();
+        long remaining = 0;
+        for(int slot = 0; slot < Math.min(board.getNumberOfSlots(), 64); slot++){
+            if((board.getLowMask(slot) | board.getHighMask(slot)) != 0) remaining |= 1L << slot;
+        }
+        if(remaining == 0 || threshold <= 1) return remaining;
+        if(threshold > Math.max(rows, columns)) return 0;
+
+        long owners = 0;
+        for(int direction = 0; direction < STEPS.length && remaining != 0; direction++){
+            if(direction >= 2 && threshold > Math.min(rows, columns)) break;
+            int index = edgeIndex(rows, columns, direction);
+            for(long pending = remaining; pending != 0; pending &= pending - 1){
+                int slot = Long.numberOfTrailingZeros(pending);
+                if(hasRun(board.getLowMask(slot), board.getHighMask(slot), index, STEPS[direction], threshold)) {
+                    owners |= 1L << slot;
+                    remaining &= ~(1L << slot);
+                }
+            }
+        }
+        return owners;
+    }
+
+    // Whether the mask holds a run of threshold cells in the direction whose edge masks are at the index
+    private static boolean hasRun(long low, long high, int index, int step, int threshold) {
+        long edgeLow = low & EDGE_LOW[index];
+        long edgeHigh = high & EDGE_HIGH[index];
+        // runLow/runHigh mark the cells that start a run of (length) cells
+        long runLow = low;
+        long runHigh = high;
+        for(int length = 1; length < threshold && (runLow | runHigh) != 0; length++){
+            long shiftedLow = (runLow >>> step) | (runHigh << (64 - step));
+            long shiftedHigh = runHigh >>> step;
+            runLow = edgeLow & shiftedLow;
+            runHigh = edgeHigh & shiftedHigh;
+        }
+        return (runLow | runHigh) != 0;
+    }
+
+    // Incremental query after a move: whether the cell at the bit index is part of a run of threshold cells.
+    // Only walks out from that cell, so it is cheaper than hasLine when the rest of the board is known to have no line.
+    public static boolean hasLineThrough(long low, long high, int rows, int columns, int threshold, int bit) {
+        int row = bit / OXOBitBoard.STRIDE;
+        int col = bit % OXOBitBoard.STRIDE;
+        for(int direction = 0; direction < STEPS.length; direction++){
+            int rowStep = ROW_STEPS[direction], colStep = COLUMN_STEPS[direction];
+            int run = 1 + countRun(low, high, rows, columns, row, col, rowStep, colStep) + countRun(low, high, rows, columns, row, col, -rowStep, -colStep);
+            if(run >= threshold) return true;
+        }
+        return false;
+    }
+
+    public static boolean hasLine(OXOBitBoard board, int slot, int threshold) {
+        return hasLine(board.getLowMask(slot), board.getHighMask(slot), board.getNumberOfRows(), board.getNumberOfColumns(), threshold);
+    }
+
+    // Whole board query: the first slot (in slot order) that owns a line, or EMPTY if nobody does
+    public static int findLineOwner(OXOBitBoard board, int threshold) {
+        for(int slot = 0; slot < board.getNumberOfSlots(); slot++){
+            if(hasLine(board, slot, threshold)) return slot;
+        }
+        return OXOBoard.EMPTY;
+    }
+
+    // Search heuristic: the number of windows of threshold cells (in any direction) that lie entirely on free cells,
+    // where free means on the board and not held by an opponent, with windows that already hold one of the
+    // player's own cells counted three times over
+    public static int scoreWindows(long ownLow, long ownHigh, long freeLow, long freeHigh, int rows, int columns, int threshold) {
+        if(threshold > Math.max(rows, columns)) return 0;
+        int score = 0;
+        for(int direction = 0; direction < STEPS.length; direction++){
+            if(direction >= 2 && threshold > Math.min(rows, columns)) break;
+            int step = STEPS[direction];
+            int index = edgeIndex(rows, columns, direction);
+            long edgeLow = freeLow & EDGE_LOW[index];
+            long edgeHigh = freeHigh & EDGE_HIGH[index];
+            long runLow = freeLow, runHigh = freeHigh;
+            long anyLow = ownLow, anyHigh = ownHigh;
+            for(int length = 1; length < threshold && (runLow | runHigh) != 0; length++){
+                long shiftedLow = (runLow >>> step) | (runHigh << (64 - step));
+                runLow = edgeLow & shiftedLow;
+                runHigh = edgeHigh & (runHigh >>> step);
+                anyLow = ownLow | (anyLow >>> step) | (anyHigh << (64 - step));
+                anyHigh = ownHigh | (anyHigh >>> step);
+            }
+            score += Long.bitCount(runLow) + Long.bitCount(runHigh);
+            score += 2 * (Long.bitCount(runLow & anyLow) + Long.bitCount(runHigh & anyHigh));
+        }
+        return score;
+    }
+
+    private static int countRun(long low, long high, int rows, int columns, int row, int col, int rowStep, int colStep) {
+        int count = 0;
+        int i = row + rowStep, j = col + colStep;
+        while(i >= 0 && i < rows && j >= 0 && j < columns){
+            int bit = i * OXOBitBoard.STRIDE + j;
+            if(((bit < 64 ? low >>> bit : high >>> (bit - 64)) & 1) == 0) break;
+            count++;
+            i += rowStep;
+            j += colStep;
+        }
+        return count;
+    }
+
+    private static int edgeIndex(int rows, int columns, int direction) {
+        return (rows * SIZES + columns) * STEPS.length + direction;
+    }
+
+    private static boolean hasNeighbour(int rows, int columns, int row, int col, int direction) {
+        switch(direction) {
+            case 0: return col + 1 < columns;
+            case 1: return row + 1 < rows;
+            case 2: return row + 1 < rows && col + 1 < columns;
+            default: return row + 1 < rows && col - 1 >= 0;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package edu.uob;
+
+// Zobrist keys shared by OXOModel and OXOPosition, so that the same game gets the same 64 bit hash in both.
+// A position's hash is the XOR of a key for every claimed cell (by player and cell), a key for the player to move
+// and keys for the number of rows, the number of columns and the win threshold, so any one of them can be
+// changed in O(1) by XORing the old key out and the new one in.
+// Cell keys for boards up to 9x9 (in the OXOBitBoard bit layout) and player keys come from tables; others are mixed on demand.
+// A cell key mixes the player and row first and the column in a second round, so large coordinates never spill into each other's bits.
+public final class OXOZobrist {
+    private static final int TABLE_PLAYERS = OXOPosition.MAX_PLAYERS;
+    private static final int CELLS = OXOBitBoard.MAX_SIZE * OXOBitBoard.STRIDE;
+    private static final long[] CELL_KEYS = new long[TABLE_PLAYERS * CELLS];
+    private static final long[] PLAYER_KEYS = new long[TABLE_PLAYERS];
+    private static final long CELL = 1L << 60;
+    private static final long PLAYER = 2L << 60;
+    private static final long ROWS = 3L << 60;
+    private static final long COLUMNS = 4L << 60;
+    private static final long THRESHOLD = 5L << 60;
+
+    static {
+        for(int player = 0; player < TABLE_PLAYERS; player++){
+            PLAYER_KEYS[player] = mix(PLAYER | player);
+            for(int bit = 0; bit < CELLS; bit++){
+                CELL_KEYS[player * CELLS + bit] = mixCell(player, bit / OXOBitBoard.STRIDE, bit % OXOBitBoard.STRIDE);
+            }
+        }
+    }
+
+    private OXOZobrist() {}
+
+    // Key for a cell in the OXOBitBoard layout (row * STRIDE + column), for players below MAX_PLAYERS
+    public static long cellKey(int player, int bit) {
+        return CELL_KEYS[player * CELLS + bit];
+    }
+
+    public static long cellKey(int player, int rowNumber, int colNumber) {
+        if(player < TABLE_PLAYERS && rowNumber < OXOBitBoard.MAX_SIZE && colNumber < OXOBitBoard.MAX_SIZE){
+            return CELL_KEYS[player * CELLS + rowNumber * OXOBitBoard.STRIDE + colNumber];
+        }
+        return mixCell(player, rowNumber, colNumber);
+    }
+
+    // Player and row in separate fields of the first round (row in the low 31 bits), then the column on its own
+    private static long mixCell(int player, int rowNumber, int colNumber) {
+        return mix(mix(CELL | ((long) player << 31) | rowNumber) ^ colNumber);
+    }
+
+    public static long playerKey(int playerNumber) {
+        return playerNumber < TABLE_PLAYERS ? PLAYER_KEYS[playerNumber] : mix(PLAYER | playerNumber);
+    }
+
+    public static long rowsKey(int numberOfRows) {
+        return mix(ROWS | numberOfRows);
+    }
+
+    public static long columnsKey(int numberOfColumns) {
+        return mix(COLUMNS | numberOfColumns);
+    }
+
+    public static long thresholdKey(int winThreshold) {
+        return mix(THRESHOLD | winThreshold);
+    }
+
+    // Hash of an empty board of the given shape with the given player to move
+    public static long emptyBoardKey(int numberOfRows, int numberOfColumns, int winThreshold, int playerNumber) {
+        return rowsKey(numberOfRows) ^ columnsKey(numberOfColumns) ^ thresholdKey(winThreshold) ^ playerKey(playerNumber);
+    }
+
+    // Hash of the model worked out from scratch by visiting every cell (OXOModel.getHash keeps the same value up to date)
+    public static long computeHash(OXOModel model) {
+        long hash = emptyBoardKey(model.getNumberOfRows(), model.getNumberOfColumns(), model.getWinThreshold(), model.getCurrentPlayerNumber());
+        OXOBoard board = model.getBoard();
+        for(int i = 0; i < board.getNumberOfRows(); i++){
+            for(int j = 0; j < board.getNumberOfColumns(); j++){
+                int slot = board.getOwner(i, j);
+                if(slot != OXOBoard.EMPTY) hash ^= cellKey(slot, i, j);
+            }
+        }
+        return hash;
+    }
+
+    // SplitMix64 finaliser
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -3,6 +3,7 @@ package edu.uob;
 import edu.uob.OXOMoveException.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -1268,4 +1269,230 @@ class OXOControllerTest {
 
     }
 
+    @Test
+    void testUndoRedo(){
+
+        long emptyHash = model.getHash();
+        sendCommandToController("a1");
+        sendCommandToController("b1");
+        long twoMoves = model.getHash();
+        sendCommandToController("a2");
+        sendCommandToController("b2");
+        sendCommandToController("a3");
+        assertEquals('X', model.getWinner().getPlayingLetter(), "X should have won along row a");
+
+        assertTrue(controller.undo(), "There should be a move to undo");
+        assertNull(model.getWinner(), "Undoing the winning move should clear the winner");
+        assertNull(model.getCellOwner(0, 2), "Undoing a3 should empty it again");
+        assertEquals(0, model.getCurrentPlayerNumber(), "X should be to move again");
+
+        assertTrue(controller.redo(), "There should be a move to redo");
+        assertEquals('X', model.getWinner().getPlayingLetter(), "Redoing the winning move should restore the winner");
+
+        controller.rewindTo(2);
+        assertEquals(2, controller.getPly(), "Two moves should be left after rewinding");
+        assertEquals(twoMoves, model.getHash(), "Rewinding should restore the position exactly");
+        assertEquals(2, model.getNumberOfFilledCells(), "Only a1 and b1 should be claimed");
+        controller.rewindTo(5);
+        assertEquals('X', model.getWinner().getPlayingLetter(), "Rewinding forwards should replay the win");
+
+        // A new move after an undo replaces the moves that could have been redone
+        controller.rewindTo(2);
+        sendCommandToController("c3");
+        assertFalse(controller.canRedo(), "A new move should discard the redo history");
+        assertEquals(1, model.getCurrentPlayerNumber(), "O should be to move after c3");
+
+        controller.rewindTo(0);
+        assertEquals(emptyHash, model.getHash(), "Undoing everything should give back the empty board");
+        assertFalse(controller.undo(), "There should be nothing left to undo");
+        assertThrows(IllegalArgumentException.class, ()-> controller.rewindTo(5), "Ply 5 was discarded");
+
+        // Undoing the move that filled the board clears the draw
+        for(String move : new String[] {"a1", "a2", "a3", "b2", "b1", "b3", "c2", "c1", "c3"}) sendCommandToController(move);
+        assertTrue(model.isGameDrawn(), "The board is full with no line, so the game should be drawn");
+        controller.undo();
+        assertFalse(model.isGameDrawn(), "Undoing the last move should reopen the game");
+        assertEquals(0, model.getCurrentPlayerNumber(), "X made the last move so should be to move again");
+    }
+
+    @Test
+    void testUndoRedoAfterRuleChanges(){
+
+        // 4x4 with a threshold of 4: X wins along row a, then the threshold is lowered, as is allowed once a game is won
+        controller.increaseWinThreshold();
+        controller.addRow();
+        controller.addColumn();
+        for(String move : new String[] { "a1", "b1", "a2", "b2", "a3", "b3", "a4" }) sendCommandToController(move);
+        assertEquals('X', model.getWinner().getPlayingLetter(), "X should have won along row a");
+        controller.decreaseWinThreshold();
+        assertEquals(3, model.getWinThreshold(), "The threshold can be lowered once the game is won");
+
+        // Undoing is checked under the current threshold, so lines left on the board still win
+        controller.undo();
+        assertEquals('O', model.getWinner().getPlayingLetter(), "Without a4, O has the most recent line");
+        assertFalse(controller.canRedo(), "Moves cannot be redone into a finished game");
+        controller.undo();
+        assertEquals('X', model.getWinner().getPlayingLetter(), "Without b3, only X has a line");
+        controller.undo();
+        assertNull(model.getWinner(), "Without a3 nobody has a line");
+        assertEquals(0, model.getCurrentPlayerNumber(), "X should be to move again");
+
+        // a3 did not win when it was first played, but it does under the lowered threshold
+        assertTrue(controller.redo(), "a3 can be redone");
+        assertEquals('X', model.getWinner().getPlayingLetter(), "Redoing a3 should be checked under the current threshold");
+        controller.rewindTo(7);
+        assertEquals(5, controller.getPly(), "Rewinding forwards should stop once the game is won");
+
+        // Changing the rules throws away the moves that could be redone
+        controller.undo();
+        controller.increaseWinThreshold();
+        assertFalse(controller.canRedo(), "Undone moves were made under the old threshold");
+
+        // Moves made since the last change, and those before a position already found to have no line, undo as usual
+        sendCommandToController("c1");
+        sendCommandToController("c2");
+        controller.rewindTo(0);
+        assertNull(model.getWinner(), "The empty board has no winner");
+        assertEquals(0, model.getNumberOfFilledCells(), "Every move should have been undone");
+        assertEquals(0, model.getCurrentPlayerNumber(), "X should be to move on the empty board");
+    }
+
+    @Test
+    void testBufferParsing() throws OXOMoveException {
+
+        // Moves can be read straight out of char and byte buffers, in either case
+        char[] chars = "move:B2;".toCharArray();
+        byte[] bytes = "xxc3a1".getBytes(StandardCharsets.US_ASCII);
+        controller.handleIncomingCommand(chars, 5, 2);
+        controller.handleIncomingCommand(bytes, 2, 2);
+        controller.handleIncomingCommand(new StringBuilder("A1"));
+        assertEquals('X', model.getCellOwner(1, 1).getPlayingLetter(), "B2 from a char buffer should belong to X");
+        assertEquals('O', model.getCellOwner(2, 2).getPlayingLetter(), "c3 from a byte buffer should belong to O");
+        assertEquals('X', model.getCellOwner(0, 0).getPlayingLetter(), "A1 from a StringBuilder should belong to X");
+
+        assertThrows(InvalidIdentifierLengthException.class, ()-> controller.handleIncomingCommand(bytes, 0, 3), "Three bytes is too long");
+        assertThrows(CellAlreadyTakenException.class, ()-> controller.handleIncomingCommand(bytes, 4, 2), "a1 is already taken");
+
+        // Messages are only built when asked for, but should still describe the problem
+        OXOMoveException exception = assertThrows(OutsideCellRangeException.class, ()-> controller.handleIncomingCommand("d1"));
+        assertEquals("Position 4 is out of range for ROW", exception.getMessage(), "Message should name the bad position");
+        exception = assertThrows(InvalidIdentifierCharacterException.class, ()-> controller.handleIncomingCommand("a!"));
+        assertEquals("! is not a valid character for a COLUMN", exception.getMessage(), "Message should name the bad character");
+    }
+
+    @Test
+    void testTryMove(){
+
+        assertEquals(OXOMoveResult.MOVE_MADE, controller.tryMove("a1"), "a1 is a legal first move");
+        assertEquals(OXOMoveResult.CELL_TAKEN, controller.tryMove("a1"), "a1 has already been claimed");
+        assertEquals(OXOMoveResult.INVALID_LENGTH, controller.tryMove("b22"), "Identifiers are two characters long");
+        assertEquals(OXOMoveResult.INVALID_ROW_CHARACTER, controller.tryMove("1a"), "Rows are letters");
+        assertEquals(OXOMoveResult.INVALID_COLUMN_CHARACTER, controller.tryMove("aa"), "Columns are digits");
+        assertEquals(OXOMoveResult.ROW_OUT_OF_RANGE, controller.tryMove("d1"), "Row d is off the board");
+        assertEquals(OXOMoveResult.COLUMN_OUT_OF_RANGE, controller.tryMove("a0"), "Column 0 is off the board");
+        assertEquals(OXOMoveResult.COLUMN_OUT_OF_RANGE, controller.tryMove(0, 3), "Column 4 is off the board");
+        assertTrue(controller.tryMove("d1").isRejected(), "Moves off the board should be rejected");
+        assertEquals(1, model.getNumberOfFilledCells(), "Rejected moves should leave the board alone");
+        assertEquals(1, model.getCurrentPlayerNumber(), "Rejected moves should not pass the turn on");
+
+        assertEquals(OXOMoveResult.MOVE_MADE, controller.tryMove(1, 0), "b1 is a legal move for O");
+        assertEquals(OXOMoveResult.MOVE_MADE, controller.tryMove("a2"), "a2 is a legal move for X");
+        assertEquals(OXOMoveResult.MOVE_MADE, controller.tryMove("b2"), "b2 is a legal move for O");
+        assertEquals(OXOMoveResult.WON, controller.tryMove("a3"), "a3 completes row a for X");
+        assertEquals(OXOMoveResult.GAME_OVER, controller.tryMove("c3"), "No moves count once the game is won");
+        assertFalse(controller.tryMove("c3").isRejected(), "Moves after a win are ignored rather than rejected");
+    }
+
+    @Test
+    void testLongIdentifiers() throws OXOMoveException {
+
+        // A controller allowed to grow the board past 26 rows and 9 columns
+        OXOController bigController = new OXOController(model, 30);
+        for(int i = 0; i < 27; i++) bigController.addRow();
+        for(int i = 0; i < 9; i++) bigController.addColumn();
+        assertEquals(30, model.getNumberOfRows(), "The board should stop growing at 30 rows");
+        assertEquals(12, model.getNumberOfColumns(), "Columns should grow past 9");
+
+        assertEquals("z", OXOController.rowLabel(25), "Row 26 should be z");
+        assertEquals("aa", OXOController.rowLabel(26), "Row 27 should be aa");
+        assertEquals("ad12", OXOController.cellIdentifier(29, 11), "The bottom right cell should be ad12");
+        assertEquals("zz", OXOController.rowLabel(701), "Row 702 should be zz");
+        assertEquals("aaa", OXOController.rowLabel(702), "Row 703 should be aaa");
+
+        assertEquals(OXOMoveResult.MOVE_MADE, bigController.tryMove("AA12"), "AA12 is on the board");
+        assertEquals('X', model.getCellOwner(26, 11).getPlayingLetter(), "AA12 should be row 27, column 12");
+        bigController.handleIncomingCommand("b10".toCharArray(), 0, 3);
+        assertEquals('O', model.getCellOwner(1, 9).getPlayingLetter(), "b10 from a char buffer should belong to O");
+        bigController.handleIncomingCommand("ac1".getBytes(StandardCharsets.US_ASCII), 0, 3);
+        assertEquals('X', model.getCellOwner(28, 0).getPlayingLetter(), "ac1 from a byte buffer should belong to X");
+
+        assertEquals(OXOMoveResult.CELL_TAKEN, bigController.tryMove("aA12"), "Letters can be in either case");
+        assertEquals(OXOMoveResult.ROW_OUT_OF_RANGE, bigController.tryMove("ae1"), "There is no row 31");
+        assertEquals(OXOMoveResult.COLUMN_OUT_OF_RANGE, bigController.tryMove("a13"), "There is no column 13");
+        assertEquals(OXOMoveResult.INVALID_LENGTH, bigController.tryMove("aa123"), "No identifier on this board is five characters");
+        assertEquals(OXOMoveResult.INVALID_COLUMN_CHARACTER, bigController.tryMove("abc"), "An identifier needs a column");
+        assertEquals(OXOMoveResult.INVALID_ROW_CHARACTER, bigController.tryMove("12a"), "An identifier starts with its row");
+        OXOMoveException exception = assertThrows(InvalidIdentifierCharacterException.class, ()-> bigController.handleIncomingCommand("a1x"));
+        assertEquals("x is not a valid character for a COLUMN", exception.getMessage(), "Message should name the bad character");
+        exception = assertThrows(OutsideCellRangeException.class, ()-> bigController.handleIncomingCommand("zz1"));
+        assertEquals("Position 702 is out of range for ROW", exception.getMessage(), "Message should name the bad row");
+        // Parsing stops at the first letter that takes the row past the board, so long rows cannot overflow
+        assertEquals(OXOMoveResult.ROW_OUT_OF_RANGE, bigController.tryMove("zzz1"), "There is no row zzz");
+        exception = assertThrows(OutsideCellRangeException.class, ()-> bigController.handleIncomingCommand("bz1"));
+        assertEquals("Position 78 is out of range for ROW", exception.getMessage(), "Message should name the row as far as it was read");
+
+        // Very large boards use the same identifiers
+        OXOModel sparseModel = new OXOModel(1000, 1000, 5, true);
+        sparseModel.addPlayer(new OXOPlayer('X'));
+        sparseModel.addPlayer(new OXOPlayer('O'));
+        OXOController sparseController = new OXOController(sparseModel);
+        assertEquals(OXOMoveResult.MOVE_MADE, sparseController.tryMove("c107"), "c107 is on a 1000x1000 board");
+        assertEquals(OXOMoveResult.MOVE_MADE, sparseController.tryMove("ALL1000"), "ALL1000 is the bottom right cell");
+        assertEquals('X', sparseModel.getCellOwner(2, 106).getPlayingLetter(), "c107 should be row 3, column 107");
+        assertEquals('O', sparseModel.getCellOwner(999, 999).getPlayingLetter(), "ALL1000 should be row 1000, column 1000");
+        assertEquals("all1000", OXOController.cellIdentifier(999, 999), "Labels should match what the parser accepts");
+    }
+
+    @Test
+    void testWholeBoardCheckAfterChanges() {
+
+        // Lines set up directly on the model are not seen by the move check around the last cell
+        model.setCellOwner(1, 0, model.getPlayerByNumber(1));
+        model.setCellOwner(1, 1, model.getPlayerByNumber(1));
+        model.setCellOwner(1, 2, model.getPlayerByNumber(1));
+        controller.increaseWinThreshold();
+        assertNull(model.getWinner(), "Nobody has a line of four");
+
+        // The threshold cannot come down again mid-game, but growing the board re-checks every line
+        controller.decreaseWinThreshold();
+        assertEquals(4, model.getWinThreshold(), "The threshold cannot be lowered once the game has started");
+        controller.addColumn();
+        assertNull(model.getWinner(), "The threshold is still four");
+        model.setWinThreshold(3);
+        controller.addRow();
+        assertEquals(model.getPlayerByNumber(1), model.getWinner(), "O has a line of three once the board has been checked again");
+        assertEquals(1, model.getCurrentPlayerNumber(), "The winner should be the current player, as after a winning move");
+        assertEquals(OXOMoveResult.GAME_OVER, controller.tryMove("d4"), "No moves count once the game is won");
+
+        // With no moves in the history to go by, players with a line win in turn order
+        controller.reset();
+        for(int j = 0; j < 3; j++){
+            model.setCellOwner(0, j, model.getPlayerByNumber(0));
+            model.setCellOwner(1, j, model.getPlayerByNumber(1));
+        }
+        controller.addColumn();
+        assertEquals(model.getPlayerByNumber(0), model.getWinner(), "X comes first in turn order when both have a line");
+
+        // A drawn game is reopened by adding a row, and checked again: still no line of three
+        controller.reset();
+        controller.removeRow();
+        controller.removeColumn();
+        controller.removeColumn();
+        for(String move : new String[] { "a1", "a2", "a3", "b2", "b1", "b3", "c2", "c1", "c3" }) sendCommandToController(move);
+        assertTrue(model.isGameDrawn(), "The board is full with no line, so the game should be drawn");
+        controller.addRow();
+        assertFalse(model.isGameDrawn(), "Adding a row should reopen the game");
+        assertNull(model.getWinner(), "Nobody has a line on the full rows");
+    }
+
 }
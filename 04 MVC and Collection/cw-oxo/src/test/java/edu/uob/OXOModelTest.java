@@ -0,0 +1,384 @@
+package edu.uob;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OXOModelTest {
+    private OXOModel model;
+    private OXOPlayer playerX;
+    private OXOPlayer playerO;
+
+    @BeforeEach
+    void setup() {
+        model = new OXOModel(3, 3, 3);
+        playerX = new OXOPlayer('X');
+        playerO = new OXOPlayer('O');
+        model.addPlayer(playerX);
+        model.addPlayer(playerO);
+    }
+
+    @Test
+    void testCellOwnership() {
+
+        assertTrue(model.getBoard() instanceof OXOBitBoard, "Small boards should be stored as a bitboard");
+
+        model.setCellOwner(0, 0, playerX);
+        model.setCellOwner(2, 2, playerO);
+        assertEquals(playerX, model.getCellOwner(0, 0), "Cell a1 should belong to X");
+        assertEquals(playerO, model.getCellOwner(2, 2), "Cell c3 should belong to O");
+        assertTrue(model.isCellEmpty(1, 1), "Cell b2 should be empty");
+
+        // Claiming a cell again replaces the previous owner
+        model.setCellOwner(0, 0, playerO);
+        assertEquals(playerO, model.getCellOwner(0, 0), "Cell a1 should now belong to O");
+
+        model.setCellOwner(0, 0, null);
+        assertNull(model.getCellOwner(0, 0), "Cell a1 should be empty again");
+        assertTrue(model.isCellEmpty(0, 0), "Cell a1 should be empty again");
+    }
+
+    @Test
+    void testResizeKeepsCells() {
+
+        model.setCellOwner(2, 2, playerX);
+        for(int i = 0; i < 6; i++){
+            model.addRow();
+            model.addColumn();
+        }
+        assertEquals(9, model.getNumberOfRows(), "Board should have 9 rows");
+        assertEquals(playerX, model.getCellOwner(2, 2), "Cell c3 was lost when the board grew");
+        model.setCellOwner(8, 8, playerO);
+        assertEquals(playerO, model.getCellOwner(8, 8), "Cell i9 should belong to O");
+
+        // Removing a row or column clears it, so it comes back empty
+        model.removeRow();
+        model.removeColumn();
+        model.addRow();
+        model.addColumn();
+        assertNull(model.getCellOwner(8, 8), "Cell i9 should be empty after being removed and added back");
+
+        // Growing past 9x9 moves the board to the grid storage
+        model.setCellOwner(8, 8, playerO);
+        model.addRow();
+        assertTrue(model.getBoard() instanceof OXOGridBoard, "Boards over 9x9 should fall back to the grid storage");
+        assertEquals(playerX, model.getCellOwner(2, 2), "Cell c3 was lost when moving storage");
+        assertEquals(playerO, model.getCellOwner(8, 8), "Cell i9 was lost when moving storage");
+        assertNull(model.getCellOwner(9, 8), "New row should be empty");
+    }
+
+    @Test
+    void testRemovedPlayerKeepsCells() {
+
+        OXOPlayer playerA = new OXOPlayer('A');
+        model.addPlayer(playerA);
+        model.setCellOwner(1, 1, playerA);
+        model.removePlayer(playerA);
+        model.setCellOwner(0, 0, playerO);
+        assertEquals(playerA, model.getCellOwner(1, 1), "Removing a player should not change the cells it owns");
+        assertEquals(playerO, model.getCellOwner(0, 0), "Cell a1 should belong to O");
+    }
+
+    @Test
+    void testLineDetection() {
+
+        OXOModel wide = new OXOModel(9, 9, 3);
+        wide.addPlayer(playerX);
+        // i8, i9 and then a1 are neighbours in bit order but must not count as a line
+        wide.setCellOwner(7, 7, playerX);
+        wide.setCellOwner(7, 8, playerX);
+        wide.setCellOwner(8, 0, playerX);
+        assertNull(wide.findLineOwner(), "A run should not wrap from one row onto the next");
+        wide.setCellOwner(7, 6, playerX);
+        assertEquals(playerX, wide.findLineOwner(), "h7, h8 and h9 should be a line");
+        assertFalse(wide.completesLine(playerX, 8, 0), "The line in row h does not pass through i1");
+
+        model.setCellOwner(0, 2, playerO);
+        model.setCellOwner(1, 1, playerO);
+        assertFalse(model.completesLine(playerO, 1, 1), "Two cells should not be a line");
+        model.setCellOwner(2, 0, playerO);
+        assertTrue(model.completesLine(playerO, 2, 0), "a3, b2 and c1 should be a line");
+        assertFalse(model.completesLine(playerX, 2, 0), "X has no cells so should have no line");
+    }
+
+    @Test
+    void testBitBoardMatchesGridBoard() {
+
+        // Compare the shift-and-mask detector with a plain walk over the same random boards
+        Random random = new Random(42);
+        for(int game = 0; game < 2000; game++){
+            int rows = 1 + random.nextInt(9);
+            int columns = 1 + random.nextInt(9);
+            int threshold = 2 + random.nextInt(5);
+            OXOBitBoard bitBoard = new OXOBitBoard(rows, columns);
+            OXOGridBoard gridBoard = new OXOGridBoard(rows, columns);
+            for(int i = 0; i < rows; i++){
+                for(int j = 0; j < columns; j++){
+                    int slot = random.nextInt(3) - 1;
+                    bitBoard.setOwner(i, j, slot);
+                    gridBoard.setOwner(i, j, slot);
+                }
+            }
+            for(int slot = 0; slot < 2; slot++){
+                boolean expected = false;
+                for(int i = 0; i < rows; i++){
+                    for(int j = 0; j < columns; j++){
+                        boolean through = gridBoard.hasLineThrough(slot, i, j, threshold);
+                        assertEquals(through, bitBoard.hasLineThrough(slot, i, j, threshold), "Lines through [" + i + "," + j + "] disagree on game " + game);
+                        expected |= through;
+                    }
+                }
+                assertEquals(expected, OXOWinDetector.hasLine(bitBoard, slot, threshold), "Detectors disagree on game " + game);
+            }
+            assertEquals(gridBoard.findLineOwners(threshold), bitBoard.findLineOwners(threshold), "Line owners disagree on game " + game);
+        }
+    }
+
+    @Test
+    void testFilledCellCounts() {
+
+        model.setCellOwner(0, 0, playerX);
+        model.setCellOwner(0, 2, playerO);
+        model.setCellOwner(2, 2, playerX);
+        // Changing the owner of a claimed cell should not count it twice
+        model.setCellOwner(2, 2, playerO);
+        assertEquals(3, model.getNumberOfFilledCells(), "Three cells have been claimed");
+        assertEquals(2, model.getFilledCellsInRow(0), "Row a has two claimed cells");
+        assertEquals(2, model.getFilledCellsInColumn(2), "Column 3 has two claimed cells");
+        assertEquals(0, model.getFilledCellsInRow(1), "Row b has no claimed cells");
+
+        model.removeColumn();
+        assertEquals(1, model.getNumberOfFilledCells(), "Removing column 3 should drop its two cells");
+        assertEquals(1, model.getFilledCellsInRow(0), "Row a should only have a1 left");
+        assertEquals(0, model.getFilledCellsInRow(2), "Row c should be empty");
+
+        model.addColumn();
+        model.addRow();
+        assertEquals(0, model.getFilledCellsInColumn(2), "New column should be empty");
+        assertEquals(0, model.getFilledCellsInRow(3), "New row should be empty");
+        assertFalse(model.isBoardFull(), "Board should not be full");
+
+        model.clearCells();
+        assertEquals(0, model.getNumberOfFilledCells(), "Board should be empty after clearing");
+        assertEquals(0, model.getFilledCellsInRow(0), "Row a should be empty after clearing");
+    }
+
+    @Test
+    void testIncrementalHash() throws OXOMoveException {
+
+        // The same position reached by different move orders should hash the same
+        OXOController controller = new OXOController(model);
+        long empty = model.getHash();
+        controller.handleIncomingCommand("a1");
+        controller.handleIncomingCommand("b2");
+        controller.handleIncomingCommand("c3");
+        long first = model.getHash();
+        controller.reset();
+        assertEquals(empty, model.getHash(), "Reset should bring back the empty board hash");
+        controller.handleIncomingCommand("c3");
+        controller.handleIncomingCommand("b2");
+        controller.handleIncomingCommand("a1");
+        assertEquals(first, model.getHash(), "Transposed move orders should give the same hash");
+        assertEquals(OXOPosition.fromModel(model).getHash(), model.getHash(), "Search positions should hash like the model");
+
+        // Player to move, size and threshold are all part of the hash
+        model.setCurrentPlayerNumber(0);
+        assertNotEquals(first, model.getHash(), "Player to move should change the hash");
+        controller.increaseWinThreshold();
+        assertNotEquals(first, model.getHash(), "Threshold should change the hash");
+
+        // Random edits, resizes and migration to the grid board should always match a hash from scratch
+        Random random = new Random(7);
+        for(int step = 0; step < 2000; step++){
+            int action = random.nextInt(10);
+            if(action == 0 && model.getNumberOfRows() < 12) model.addRow();
+            else if(action == 1 && model.getNumberOfColumns() < 12) model.addColumn();
+            else if(action == 2 && model.getNumberOfRows() > 1) model.removeRow();
+            else if(action == 3 && model.getNumberOfColumns() > 1) model.removeColumn();
+            else if(action == 4) model.setWinThreshold(2 + random.nextInt(4));
+            else if(action == 5) model.setCurrentPlayerNumber(random.nextInt(2));
+            else {
+                OXOPlayer player = action == 6 ? null : random.nextBoolean() ? playerX : playerO;
+                model.setCellOwner(random.nextInt(model.getNumberOfRows()), random.nextInt(model.getNumberOfColumns()), player);
+            }
+            assertEquals(OXOZobrist.computeHash(model), model.getHash(), "Incremental hash went wrong at step " + step);
+        }
+    }
+
+    @Test
+    void testSparseBoard() {
+
+        // A Gomoku sized game on a huge board only stores the cells that have been claimed
+        OXOModel sparse = new OXOModel(1000, 1000, 5, true);
+        sparse.addPlayer(playerX);
+        sparse.addPlayer(playerO);
+        OXOController controller = new OXOController(sparse);
+        assertTrue(sparse.getBoard() instanceof OXOSparseBoard, "Sparse models should use the sparse board");
+        int[][] moves = {{500, 500}, {0, 0}, {501, 501}, {999, 999}, {502, 502}, {0, 999}, {503, 503}, {999, 0}};
+        for(int[] move : moves){
+            assertEquals(OXOMoveResult.MOVE_MADE, controller.tryMove(move[0], move[1]), "Move should be accepted");
+        }
+        assertEquals(OXOMoveResult.CELL_TAKEN, controller.tryMove(999, 999), "Corner cell has already been claimed");
+        assertEquals(OXOMoveResult.WON, controller.tryMove(504, 504), "Five on the diagonal should win");
+        assertEquals(playerX, sparse.getWinner(), "X should have won");
+        assertEquals(playerX, sparse.findLineOwner(), "The whole board check should find the same line");
+        assertEquals(9, ((OXOSparseBoard) sparse.getBoard()).getNumberOfStones(), "Only the claimed cells should be stored");
+        assertEquals(playerO, sparse.getCellOwner(999, 0), "Cell [999,0] should belong to O");
+
+        // Undoing lots of moves empties the table again, and shrinking the board drops the cells it removes
+        controller.rewindTo(0);
+        assertEquals(0, ((OXOSparseBoard) sparse.getBoard()).getNumberOfStones(), "Undoing every move should empty the board");
+        sparse.setCellOwner(999, 5, playerO);
+        sparse.removeRow();
+        sparse.addRow();
+        assertNull(sparse.getCellOwner(999, 5), "Removing the last row should clear its cells");
+        assertEquals(0, sparse.getNumberOfFilledCells(), "No cells should be claimed");
+
+        // Coordinates past 2^20 must not share cell keys, and the area of a huge board does not fit an int
+        assertNotEquals(OXOZobrist.cellKey(0, 1, 0), OXOZobrist.cellKey(0, 0, 1 << 20), "Cells [1,0] and [0,2^20] should have different keys");
+        assertNotEquals(OXOZobrist.cellKey(0, 0, 0), OXOZobrist.cellKey(1 << 11, 0, 0), "Players past 2^11 should not collide with rows");
+        OXOModel huge = new OXOModel(100_000, 100_000, 5, true);
+        huge.addPlayer(playerX);
+        huge.addPlayer(playerO);
+        assertFalse(huge.isBoardFull(), "An empty 100000x100000 board is not full");
+        assertNotNull(new OXORandomStrategy(3).chooseMove(huge), "There are plenty of empty cells to choose from");
+
+        // Random edits should leave the sparse board agreeing with a dense one
+        Random random = new Random(11);
+        OXOSparseBoard sparseBoard = new OXOSparseBoard(12, 12);
+        OXOGridBoard gridBoard = new OXOGridBoard(12, 12);
+        for(int step = 0; step < 20000; step++){
+            int row = random.nextInt(12), column = random.nextInt(12), slot = random.nextInt(3) - 1;
+            sparseBoard.setOwner(row, column, slot);
+            gridBoard.setOwner(row, column, slot);
+            int checkRow = random.nextInt(12), checkColumn = random.nextInt(12);
+            assertEquals(gridBoard.getOwner(checkRow, checkColumn), sparseBoard.getOwner(checkRow, checkColumn), "Boards disagree at step " + step);
+            assertEquals(gridBoard.findLineOwner(4) != OXOBoard.EMPTY, sparseBoard.findLineOwner(4) != OXOBoard.EMPTY, "Line checks disagree at step " + step);
+        }
+    }
+
+    @Test
+    void testChangeListeners() {
+
+        // Each notification is summarised as a string, since the event itself is reused
+        List<String> events = new ArrayList<String>();
+        model.addListener(event -> {
+            StringBuilder summary = new StringBuilder();
+            for(OXOModelEvent.Type type : OXOModelEvent.Type.values()){
+                if(event.has(type)) summary.append(type).append(' ');
+            }
+            for(int i = 0; i < event.getNumberOfCells(); i++){
+                summary.append('[').append(event.getRow(i)).append(',').append(event.getColumn(i)).append(']');
+            }
+            events.add(summary.toString().trim());
+        });
+
+        model.setCellOwner(0, 0, playerX);
+        assertEquals(List.of("CELL_CLAIMED [0,0]"), events, "Claiming a cell should be reported straight away");
+        model.setCellOwner(0, 0, playerX);
+        model.setWinThreshold(3);
+        assertEquals(1, events.size(), "Setting things to what they already are is not a change");
+
+        // A batch is reported once, with every change merged
+        events.clear();
+        model.beginBatch();
+        model.setCellOwner(1, 1, playerO);
+        model.beginBatch();
+        model.setCellOwner(0, 0, null);
+        model.endBatch();
+        model.setCurrentPlayerNumber(1);
+        assertTrue(events.isEmpty(), "Nothing should be reported until the outermost batch ends");
+        model.endBatch();
+        assertEquals(List.of("CELL_CLAIMED CELL_CLEARED PLAYER_CHANGED [1,1][0,0]"), events, "The batch should be one event");
+
+        // The controller reports each command as one event, and nothing at all for commands it refuses
+        model.setCellOwner(1, 1, null);
+        model.setCurrentPlayerNumber(0);
+        OXOController controller = new OXOController(model);
+        events.clear();
+        controller.tryMove("a1");
+        controller.tryMove("b1");
+        controller.tryMove("a2");
+        controller.tryMove("b2");
+        controller.tryMove("a3");
+        assertEquals("CELL_CLAIMED PLAYER_CHANGED [0,0]", events.get(0), "A move should claim its cell and pass the turn on");
+        assertEquals("CELL_CLAIMED WINNER_CHANGED [0,2]", events.get(4), "The winning move should also set the winner");
+        assertEquals(5, events.size(), "Each move should be one event");
+        controller.removeRow();
+        controller.tryMove("c3");
+        assertEquals(5, events.size(), "Refused commands should not be reported");
+        controller.reset();
+        assertTrue(events.get(5).contains("RESET") && !events.get(5).contains("["), "A reset should be reported without listing cells");
+        controller.addRow();
+        assertEquals("ROW_ADDED", events.get(6), "Adding a row should be reported");
+    }
+
+    @Test
+    void testSnapshots() throws InterruptedException {
+
+        // Snapshots keep the game as it was, on every kind of board
+        for(OXOModel game : new OXOModel[] { new OXOModel(3, 3, 3), new OXOModel(12, 12, 3), new OXOModel(100, 100, 5, true) }){
+            game.addPlayer(playerX);
+            game.addPlayer(playerO);
+            OXOController controller = new OXOController(game);
+            controller.tryMove(0, 0);
+            OXOBoardSnapshot before = game.snapshot();
+            assertSame(before, game.snapshot(), "An unchanged model should hand out the same snapshot");
+            controller.tryMove(1, 1);
+            controller.tryMove(0, 1);
+            OXOBoardSnapshot after = game.snapshot();
+            assertNotSame(before, after, "A move should make a new snapshot");
+            assertEquals(playerX, before.getCellOwner(0, 0), "a1 belonged to X");
+            assertTrue(before.isCellEmpty(1, 1), "b2 was empty in the earlier snapshot");
+            assertEquals(1, before.getCurrentPlayerNumber(), "O was to move");
+            assertEquals(1, before.getNumberOfFilledCells(), "One cell was claimed");
+            assertEquals(playerO, after.getCellOwner(1, 1), "b2 belongs to O in the later snapshot");
+            assertEquals(game.getHash(), after.getHash(), "The later snapshot should match the model");
+            controller.reset();
+            assertEquals(3, after.getNumberOfFilledCells(), "Resetting the model should not touch snapshots");
+        }
+
+        // A reader on another thread only ever sees whole moves
+        OXOModel game = new OXOModel(9, 9, 4);
+        game.addPlayer(playerX);
+        game.addPlayer(playerO);
+        OXOController controller = new OXOController(game);
+        AtomicReference<OXOBoardSnapshot> latest = new AtomicReference<OXOBoardSnapshot>(game.snapshot());
+        game.addListener(event -> latest.set(game.snapshot()));
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicReference<String> error = new AtomicReference<String>();
+        Thread reader = new Thread(()-> {
+            while(!finished.get()){
+                OXOBoardSnapshot snapshot = latest.get();
+                int filled = 0, crosses = 0;
+                for(int i = 0; i < snapshot.getNumberOfRows(); i++){
+                    for(int j = 0; j < snapshot.getNumberOfColumns(); j++){
+                        OXOPlayer owner = snapshot.getCellOwner(i, j);
+                        if(owner != null) filled++;
+                        if(owner == playerX) crosses++;
+                    }
+                }
+                boolean turnsMatch = snapshot.getWinner() != null || snapshot.getCurrentPlayerNumber() == filled % 2;
+                if(filled != snapshot.getNumberOfFilledCells() || crosses != (filled + 1) / 2 || !turnsMatch) {
+                    error.compareAndSet(null, "Torn snapshot with " + filled + " cells");
+                }
+            }
+        });
+        reader.start();
+        Random random = new Random(5);
+        for(int move = 0; move < 20000; move++){
+            if(game.getWinner() != null || game.isGameDrawn()) controller.reset();
+            controller.tryMove(random.nextInt(9), random.nextInt(9));
+        }
+        finished.set(true);
+        reader.join(10_000);
+        assertNull(error.get(), "The reader should never see a half made move");
+    }
+}
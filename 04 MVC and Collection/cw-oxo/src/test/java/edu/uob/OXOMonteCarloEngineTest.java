@@ -0,0 +1,86 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OXOMonteCarloEngineTest {
+
+    private OXOModel createModel(int rows, int columns, int threshold, String letters) {
+        OXOModel model = new OXOModel(rows, columns, threshold);
+        for(char letter : letters.toCharArray()) model.addPlayer(new OXOPlayer(letter));
+        return model;
+    }
+
+    private void play(OXOController controller, String... moves) throws OXOMoveException {
+        for(String move : moves) controller.handleIncomingCommand(move);
+    }
+
+    @Test
+    void testTakesWinAndBlocks() throws OXOMoveException {
+
+        OXOMonteCarloEngine engine = new OXOMonteCarloEngine(5000, 20_000, 1 << 16, 2);
+        try {
+            OXOModel model = createModel(3, 3, 3, "XO");
+            play(new OXOController(model), "a1", "b1", "a2", "c3");
+            assertEquals("a3", engine.chooseMove(model), "X should complete the top row");
+            assertEquals(20_000, engine.getLastIterations(), "The iteration budget is shared between the threads");
+
+            model = createModel(3, 3, 3, "XO");
+            play(new OXOController(model), "b2", "a1", "a2");
+            assertEquals("c2", engine.chooseMove(model), "O should block the middle column");
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void testInterruptStopsSearch() throws InterruptedException {
+
+        OXOModel model = createModel(9, 9, 5, "XO");
+        OXOMonteCarloEngine engine = new OXOMonteCarloEngine(60_000, Long.MAX_VALUE, 1 << 16, 2);
+        String[] move = new String[1];
+        boolean[] interrupted = new boolean[1];
+        try {
+            Thread caller = Thread.ofPlatform().start(() -> {
+                move[0] = engine.chooseMove(model);
+                interrupted[0] = Thread.currentThread().isInterrupted();
+            });
+            Thread.sleep(200);
+            caller.interrupt();
+            caller.join(5000);
+            assertFalse(caller.isAlive(), "An interrupt should end the search well before the time limit");
+            assertNotNull(move[0], "The move should come from the iterations run before the interrupt");
+            assertTrue(interrupted[0], "The interrupt should be passed back to the caller");
+            assertTrue(engine.getLastIterations() > 0, "Engine should have run some playouts");
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void testSmallTree() throws OXOMoveException {
+
+        assertThrows(IllegalArgumentException.class, ()-> new OXOMonteCarloEngine(1000, 1000, 16, 1), "A tree of 16 nodes cannot hold the root's children");
+
+        // With only the root's children in the tree, the search still ranks them by their playouts
+        OXOMonteCarloEngine engine = new OXOMonteCarloEngine(5000, 20_000, OXOMonteCarloEngine.MINIMUM_TREE_SIZE, 1);
+        OXOModel model = createModel(9, 9, 3, "XO");
+        play(new OXOController(model), "a1", "i9", "a2", "i8");
+        assertEquals("a3", engine.chooseMove(model), "X should complete the top row");
+    }
+
+    @Test
+    void testLargeBoardInTime() throws OXOMoveException {
+
+        OXOModel model = createModel(9, 9, 5, "XO");
+        OXOController controller = new OXOController(model);
+        OXOMonteCarloEngine engine = new OXOMonteCarloEngine(200, Long.MAX_VALUE, 1 << 16, 1);
+        String move = assertTimeoutPreemptively(Duration.ofMillis(1000), ()-> engine.chooseMove(model));
+        assertNotNull(move, "Engine should always pick a move on a board with empty cells");
+        assertTrue(engine.getLastIterations() > 0, "Engine should have run some playouts");
+        controller.handleIncomingCommand(move);
+        assertEquals(1, model.getNumberOfFilledCells(), "Engine should pick an empty cell");
+    }
+}
@@ -0,0 +1,107 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OXORecordTest {
+    private static final int[] EVENTS = {
+        OXORecordWriter.ADD_ROW, OXORecordWriter.REMOVE_ROW, OXORecordWriter.ADD_COLUMN,
+        OXORecordWriter.REMOVE_COLUMN, OXORecordWriter.INCREASE_THRESHOLD, OXORecordWriter.DECREASE_THRESHOLD
+    };
+
+    @TempDir
+    Path directory;
+
+    // Plays random games with the odd resize or threshold change, recording them and returning their final hashes
+    private long[] writeGames(Path archive, int games) throws IOException, OXOMoveException {
+        long[] hashes = new long[games];
+        SplittableRandom random = new SplittableRandom(3);
+        OXORandomStrategy strategy = new OXORandomStrategy(5);
+        try(OutputStream stream = Files.newOutputStream(archive); OXORecordWriter writer = new OXORecordWriter(stream)) {
+            for(int game = 0; game < games; game++){
+                OXOModel model = new OXOModel(3, 3, 3);
+                model.addPlayer(new OXOPlayer('X'));
+                model.addPlayer(new OXOPlayer('O'));
+                if(game % 3 == 0) model.addPlayer(new OXOPlayer('A'));
+                OXOController controller = new OXOController(model);
+                writer.startGame(model);
+                while(model.getWinner() == null && !model.isGameDrawn()){
+                    if(random.nextInt(8) == 0) {
+                        int event = EVENTS[random.nextInt(EVENTS.length)];
+                        switch(event) {
+                            case OXORecordWriter.ADD_ROW: controller.addRow(); break;
+                            case OXORecordWriter.REMOVE_ROW: controller.removeRow(); break;
+                            case OXORecordWriter.ADD_COLUMN: controller.addColumn(); break;
+                            case OXORecordWriter.REMOVE_COLUMN: controller.removeColumn(); break;
+                            case OXORecordWriter.INCREASE_THRESHOLD: controller.increaseWinThreshold(); break;
+                            default: controller.decreaseWinThreshold();
+                        }
+                        writer.event(event);
+                    } else {
+                        String move = strategy.chooseMove(model);
+                        controller.handleIncomingCommand(move);
+                        writer.move(Character.toLowerCase(move.charAt(0)) - 'a', move.charAt(1) - '1');
+                    }
+                }
+                writer.endGame(model);
+                hashes[game] = model.getHash();
+            }
+        }
+        return hashes;
+    }
+
+    @Test
+    void testReplayMatchesOriginalGames() throws IOException, OXOMoveException {
+
+        Path archive = directory.resolve("games.oxr");
+        long[] hashes = writeGames(archive, 2000);
+
+        try(OXORecordReader reader = new OXORecordReader(archive)) {
+            for(int game = 0; game < hashes.length; game++){
+                assertTrue(reader.hasNext(), "Archive should hold game " + game);
+                OXOModel model = reader.next();
+                assertTrue(reader.matchesRecordedOutcome(), "Game " + game + " should replay to its recorded outcome");
+                assertEquals(hashes[game], model.getHash(), "Game " + game + " should replay to the same final position");
+            }
+            assertFalse(reader.hasNext(), "Archive should hold nothing else");
+        }
+
+        // A tiny map window forces games across window boundaries
+        try(OXORecordReader reader = new OXORecordReader(archive, 64)) {
+            assertEquals(hashes.length, reader.verifyAll(), "Every game should be verified with a small window");
+        }
+    }
+
+    @Test
+    void testRejectsBadArchives() throws IOException {
+
+        Path text = directory.resolve("games.txt");
+        Files.writeString(text, "a1 b2 c3");
+        assertThrows(IOException.class, ()-> new OXORecordReader(text), "A text file is not an archive");
+
+        // Claiming a1 twice is not a legal game
+        Path bad = directory.resolve("bad.oxr");
+        Files.write(bad, new byte[] { 'O', 'X', 'R', 1, 3, 3, 3, 2, 'X', 'O', 0, 0, (byte) OXORecordWriter.END, (byte) OXORecordWriter.UNFINISHED });
+        try(OXORecordReader reader = new OXORecordReader(bad)) {
+            assertThrows(IOException.class, reader::next, "A repeated cell should be rejected");
+        }
+
+        // A threshold that does not fit in a byte is refused rather than written wrongly
+        try(OXORecordWriter writer = new OXORecordWriter(OutputStream.nullOutputStream())) {
+            OXOModel model = new OXOModel(3, 3, 256);
+            model.addPlayer(new OXOPlayer('X'));
+            model.addPlayer(new OXOPlayer('O'));
+            assertThrows(IllegalArgumentException.class, ()-> writer.startGame(model), "A threshold of 256 does not fit in a record");
+            model.setWinThreshold(255);
+            writer.startGame(model);
+        }
+    }
+}
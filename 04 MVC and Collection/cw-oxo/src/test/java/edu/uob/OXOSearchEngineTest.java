@@ -0,0 +1,102 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OXOSearchEngineTest {
+
+    private OXOModel createModel(int rows, int columns, int threshold, String letters) {
+        OXOModel model = new OXOModel(rows, columns, threshold);
+        for(char letter : letters.toCharArray()) model.addPlayer(new OXOPlayer(letter));
+        return model;
+    }
+
+    private void play(OXOController controller, String... moves) throws OXOMoveException {
+        for(String move : moves) controller.handleIncomingCommand(move);
+    }
+
+    @Test
+    void testTakesWinAndBlocks() throws OXOMoveException {
+
+        OXOModel model = createModel(3, 3, 3, "XO");
+        OXOController controller = new OXOController(model);
+        OXOSearchEngine engine = new OXOSearchEngine(1000);
+
+        // X to move with a1 and a2 already taken: a3 wins straight away
+        play(controller, "a1", "b1", "a2", "c3");
+        assertEquals("a3", engine.chooseMove(model), "X should complete the top row");
+
+        // X holds b2 and a2, so O (to move) has to block the middle column at c2
+        model = createModel(3, 3, 3, "XO");
+        controller = new OXOController(model);
+        play(controller, "b2", "a1", "a2");
+        assertEquals("c2", engine.chooseMove(model), "O should block the middle column");
+    }
+
+    @Test
+    void testPerfectPlayDraws() throws OXOMoveException {
+
+        OXOModel model = createModel(3, 3, 3, "XO");
+        OXOController controller = new OXOController(model);
+        OXOSearchEngine engine = new OXOSearchEngine(1000);
+        while(model.getWinner() == null && !model.isGameDrawn()){
+            controller.handleIncomingCommand(engine.chooseMove(model));
+        }
+        assertTrue(model.isGameDrawn(), "Noughts and crosses between two perfect players is a draw");
+    }
+
+    @Test
+    void testSolvesFourByFour() {
+
+        // 4x4 with a threshold of 4 is a known draw and should be solved well inside an interactive budget
+        OXOModel model = createModel(4, 4, 4, "XO");
+        OXOSearchEngine engine = new OXOSearchEngine(5000);
+        assertTimeoutPreemptively(Duration.ofMillis(5000), ()-> engine.chooseMove(model));
+        assertEquals(0, engine.getLastScore(), "4x4 with threshold 4 should be a draw");
+        assertEquals(16, engine.getLastDepth(), "The search should have reached the end of the game");
+    }
+
+    @Test
+    void testAnswersLargerBoardsInTime() {
+
+        OXOModel model = createModel(5, 5, 4, "XO");
+        OXOSearchEngine engine = new OXOSearchEngine(500);
+        String move = assertTimeoutPreemptively(Duration.ofMillis(1500), ()-> engine.chooseMove(model));
+        assertNotNull(move, "Engine should always pick a move on a board with empty cells");
+    }
+
+    @Test
+    void testParanoidSearchWithThreePlayers() throws OXOMoveException {
+
+        OXOModel model = createModel(4, 4, 3, "XOA");
+        OXOController controller = new OXOController(model);
+        OXOSearchEngine engine = new OXOSearchEngine(1000);
+        // X holds a1 and a2, so X (to move) takes a3 to win
+        play(controller, "a1", "d1", "d4", "a2", "d2", "c4");
+        assertEquals("a3", engine.chooseMove(model), "X should complete a line of three");
+    }
+
+    @Test
+    void testParallelSearchMatchesSerial() throws OXOMoveException {
+
+        OXOParallelSearchEngine engine = new OXOParallelSearchEngine(5000, 81, 20, 4);
+        try {
+            OXOModel model = createModel(4, 4, 4, "XO");
+            assertTimeoutPreemptively(Duration.ofMillis(5000), ()-> engine.chooseMove(model));
+            assertEquals(0, engine.getLastScore(), "4x4 with threshold 4 should be a draw");
+            assertEquals(16, engine.getLastDepth(), "The search should have reached the end of the game");
+
+            OXOModel blocking = createModel(3, 3, 3, "XO");
+            play(new OXOController(blocking), "b2", "a1", "a2");
+            assertEquals("c2", engine.chooseMove(blocking), "O should block the middle column");
+
+            OXOModel threePlayers = createModel(4, 4, 3, "XOA");
+            play(new OXOController(threePlayers), "a1", "d1", "d4", "a2", "d2", "c4");
+            assertEquals("a3", engine.chooseMove(threePlayers), "X should complete a line of three");
+        } finally {
+            engine.shutdown();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package edu.uob;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OXOServerTest {
+    private OXOServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    void setup() throws IOException {
+        // Port 0 lets the operating system pick any free port
+        server = new OXOServer(0, 3, 3, 3, 2);
+        serverThread = new Thread(server);
+        serverThread.start();
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        server.stop();
+        serverThread.join(1000);
+    }
+
+    @Test
+    void testCommands() throws IOException {
+
+        try(Socket socket = new Socket("localhost", server.getPort())){
+            BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream output = socket.getOutputStream();
+            // Several requests in one packet should still get one reply each, in order
+            output.write("a1\r\nb1\na2\nz9\nb2\na3\n".getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+
+            assertTimeoutPreemptively(Duration.ofMillis(1000), ()-> {
+                assertEquals("OK 3 3 3 X../.../... TURN O", input.readLine(), "a1 should be claimed by X");
+                assertEquals("OK 3 3 3 X../O../... TURN X", input.readLine(), "b1 should be claimed by O");
+                assertEquals("OK 3 3 3 XX./O../... TURN O", input.readLine(), "a2 should be claimed by X");
+                assertTrue(input.readLine().startsWith("ERROR "), "z9 is outside the board and should be an error");
+                assertEquals("OK 3 3 3 XX./OO./... TURN X", input.readLine(), "b2 should be claimed by O");
+                assertEquals("OK 3 3 3 XXX/OO./... WIN X", input.readLine(), "X should have won");
+            });
+
+            output.write("reset\naddrow\nincrease\n".getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+            assertTimeoutPreemptively(Duration.ofMillis(1000), ()-> {
+                assertEquals("OK 3 3 3 .../.../... TURN X", input.readLine(), "Board should be empty after a reset");
+                assertEquals("OK 4 3 3 .../.../.../... TURN X", input.readLine(), "Board should have a fourth row");
+                assertEquals("OK 4 3 4 .../.../.../... TURN X", input.readLine(), "Threshold should have gone up to 4");
+            });
+        }
+    }
+
+    @Test
+    void testSessionsAreSeparate() throws IOException {
+
+        try(Socket first = new Socket("localhost", server.getPort()); Socket second = new Socket("localhost", server.getPort())){
+            first.getOutputStream().write("b2\n".getBytes(StandardCharsets.US_ASCII));
+            second.getOutputStream().write("board\n".getBytes(StandardCharsets.US_ASCII));
+            BufferedReader firstInput = new BufferedReader(new InputStreamReader(first.getInputStream(), StandardCharsets.US_ASCII));
+            BufferedReader secondInput = new BufferedReader(new InputStreamReader(second.getInputStream(), StandardCharsets.US_ASCII));
+            assertTimeoutPreemptively(Duration.ofMillis(1000), ()-> {
+                assertEquals("OK 3 3 3 .../.X./... TURN O", firstInput.readLine(), "b2 should be claimed in the first game");
+                assertEquals("OK 3 3 3 .../.../... TURN X", secondInput.readLine(), "The second game should not see the first game's move");
+            });
+        }
+    }
+
+    // A line that fills the server's buffer is dropped with an error, all the way to its newline, and the session carries on
+    private void checkLongLine(int port) throws IOException {
+        try(Socket socket = new Socket("localhost", port)){
+            BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream output = socket.getOutputStream();
+            // The end of the long line is a real command, which must not be run
+            output.write(("b2\n" + " ".repeat(OXOServer.MAX_LINE_LENGTH) + "reset\na1\n").getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+            assertTimeoutPreemptively(Duration.ofMillis(1000), ()-> {
+                assertEquals("OK 3 3 3 .../.X./... TURN O", input.readLine(), "b2 should be claimed by X");
+                assertEquals("ERROR Line longer than 256 characters", input.readLine(), "An overlong line should be rejected");
+                assertEquals("OK 3 3 3 O../.X./... TURN X", input.readLine(), "The reset at the end of the long line should have been dropped");
+            });
+
+            // A line far longer than the buffer still gets only the one error
+            output.write(("a".repeat(3 * OXOServer.MAX_LINE_LENGTH) + "\nB3\n").getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+            assertTimeoutPreemptively(Duration.ofMillis(1000), ()-> {
+                assertEquals("ERROR Line longer than 256 characters", input.readLine(), "An overlong line should be rejected once");
+                assertEquals("OK 3 3 3 O../.XX/... TURN O", input.readLine(), "Moves can be in either case");
+            });
+        }
+    }
+
+    @Test
+    void testLongLines() throws IOException, InterruptedException {
+
+        checkLongLine(server.getPort());
+        OXOBlockingServer blockingServer = new OXOBlockingServer(0, 3, 3, 3, 2, Executors.newVirtualThreadPerTaskExecutor());
+        Thread thread = Thread.ofPlatform().start(blockingServer);
+        try {
+            checkLongLine(blockingServer.getPort());
+        } finally {
+            blockingServer.stop();
+            thread.join(1000);
+        }
+    }
+
+    @Test
+    void testBlockingServerStopClosesSessions() throws IOException, InterruptedException {
+
+        // Platform threads blocked reading a socket are not woken by an interrupt, so stop has to close the sockets
+        OXOBlockingServer blockingServer = new OXOBlockingServer(0, 3, 3, 3, 2, Executors.newFixedThreadPool(4));
+        Thread thread = Thread.ofPlatform().start(blockingServer);
+        try(Socket socket = new Socket("localhost", blockingServer.getPort())){
+            BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            socket.getOutputStream().write("b2\n".getBytes(StandardCharsets.US_ASCII));
+            assertTimeoutPreemptively(Duration.ofMillis(1000), ()-> {
+                assertEquals("OK 3 3 3 .../.X./... TURN O", input.readLine(), "b2 should be claimed by X");
+                assertEquals(1, blockingServer.getSessionCount(), "The session should be open");
+                blockingServer.stop();
+                thread.join(1000);
+                assertNull(input.readLine(), "Stopping the server should close the connection");
+                while(blockingServer.getSessionCount() > 0) Thread.sleep(10);
+            });
+        } finally {
+            blockingServer.stop();
+        }
+    }
+
+    @Test
+    void testLoadClient() throws IOException, InterruptedException {
+
+        OXOLoadClient.Result result = new OXOLoadClient("localhost", server.getPort()).run(50, 2, 20);
+        assertEquals(1000, result.getRequests(), "Every connection should have sent every request");
+    }
+
+    @Test
+    void testBlockingServerModes() throws IOException, InterruptedException {
+
+        OXOBlockingServer[] servers = {
+            new OXOBlockingServer(0, 3, 3, 3, 2, Executors.newVirtualThreadPerTaskExecutor()),
+            new OXOBlockingServer(0, 3, 3, 3, 2, Executors.newFixedThreadPool(60))
+        };
+        for(OXOBlockingServer blockingServer : servers){
+            Thread thread = Thread.ofPlatform().start(blockingServer);
+            try {
+                OXOLoadClient.Result result = new OXOLoadClient("localhost", blockingServer.getPort()).run(50, 2, 20);
+                assertEquals(1000, result.getRequests(), "Every connection should have sent every request");
+            } finally {
+                blockingServer.stop();
+                thread.join(1000);
+            }
+        }
+    }
+}
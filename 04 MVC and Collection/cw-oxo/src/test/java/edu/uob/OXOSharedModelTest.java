@@ -0,0 +1,116 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OXOSharedModelTest {
+
+    @Test
+    void testTurnsAndWins() {
+
+        OXOPlayer playerX = new OXOPlayer('X'), playerO = new OXOPlayer('O');
+        OXOSharedModel model = new OXOSharedModel(3, 3, 3, playerX, playerO);
+        assertEquals(OXOMoveResult.WRONG_TURN, model.claim(1, 0, 0), "X moves first");
+        assertEquals(OXOMoveResult.MOVE_MADE, model.claim(0, 0, 0), "a1 is a legal first move");
+        assertEquals(OXOMoveResult.WRONG_TURN, model.claim(0, 1, 1), "X cannot move twice in a row");
+        assertEquals(OXOMoveResult.CELL_TAKEN, model.claim(1, 0, 0), "a1 has already been claimed");
+        assertEquals(OXOMoveResult.ROW_OUT_OF_RANGE, model.claim(1, 3, 0), "Row d is off the board");
+
+        OXOSharedModel.Snapshot before = model.snapshot();
+        assertEquals(OXOMoveResult.MOVE_MADE, model.claim(1, 1, 0), "b1 is a legal move for O");
+        assertEquals(OXOMoveResult.MOVE_MADE, model.claim(0, 0, 1), "a2 is a legal move for X");
+        assertEquals(OXOMoveResult.MOVE_MADE, model.claim(1, 1, 1), "b2 is a legal move for O");
+        assertEquals(OXOMoveResult.WON, model.claim(0, 0, 2), "a3 completes row a for X");
+        assertEquals(OXOMoveResult.GAME_OVER, model.claim(1, 2, 2), "No moves count once the game is won");
+        assertEquals(playerX, model.getWinner(), "X should have won");
+        assertEquals(5, model.getPly(), "Five moves were made");
+
+        // Snapshots do not change as play goes on
+        assertEquals(1, before.getPly(), "The snapshot was taken after one move");
+        assertEquals(playerX, before.getCellOwner(0, 0), "a1 belonged to X");
+        assertNull(before.getCellOwner(1, 0), "b1 was still empty");
+        assertEquals(1, before.getCurrentPlayerNumber(), "O was to move");
+        assertNull(before.getWinner(), "Nobody had won yet");
+    }
+
+    @Test
+    void testConcurrentClaims() throws InterruptedException {
+
+        // Two threads per player race to claim random cells, while a spectator takes snapshots. Nobody can win,
+        // so every game runs until the board is full.
+        int rows = 12, columns = 12, players = 3, threadsPerPlayer = 2;
+        for(int round = 0; round < 20; round++){
+            OXOSharedModel model = new OXOSharedModel(rows, columns, 13, new OXOPlayer('X'), new OXOPlayer('O'), new OXOPlayer('A'));
+            ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<String>();
+            List<List<Integer>> claims = new ArrayList<List<Integer>>();
+            List<Thread> threads = new ArrayList<Thread>();
+            for(int t = 0; t < players * threadsPerPlayer; t++){
+                int player = t % players;
+                List<Integer> claimed = new ArrayList<Integer>();
+                claims.add(claimed);
+                SplittableRandom random = new SplittableRandom(round * 100 + t);
+                threads.add(new Thread(()-> {
+                    while(true){
+                        int cell = random.nextInt(rows * columns);
+                        OXOMoveResult result = model.claim(player, cell / columns, cell % columns);
+                        if(result == OXOMoveResult.GAME_OVER) return;
+                        if(result == OXOMoveResult.MOVE_MADE || result == OXOMoveResult.DRAWN) claimed.add(cell);
+                        else if(result == OXOMoveResult.WRONG_TURN) Thread.yield();
+                        else if(result != OXOMoveResult.CELL_TAKEN) errors.add("Unexpected result " + result);
+                    }
+                }));
+            }
+            AtomicBoolean finished = new AtomicBoolean();
+            Thread spectator = new Thread(()-> {
+                while(!finished.get()){
+                    OXOSharedModel.Snapshot snapshot = model.snapshot();
+                    int ply = snapshot.getPly();
+                    int[] counts = new int[players];
+                    for(int i = 0; i < rows; i++){
+                        for(int j = 0; j < columns; j++){
+                            int owner = snapshot.getOwnerNumber(i, j);
+                            if(owner >= 0) counts[owner]++;
+                        }
+                    }
+                    // Turn order means the players' cell counts follow directly from the ply
+                    for(int p = 0; p < players; p++){
+                        int expected = ply / players + (p < ply % players ? 1 : 0);
+                        if(counts[p] != expected) errors.add("Snapshot at ply " + ply + " has " + counts[p] + " cells for player " + p);
+                    }
+                    if(!snapshot.isGameDrawn() && snapshot.getCurrentPlayerNumber() != ply % players) {
+                        errors.add("Snapshot at ply " + ply + " has player " + snapshot.getCurrentPlayerNumber() + " to move");
+                    }
+                    Thread.yield();
+                }
+            });
+            spectator.start();
+            for(Thread thread : threads) thread.start();
+            for(Thread thread : threads) thread.join(10_000);
+            finished.set(true);
+            spectator.join(10_000);
+
+            assertTrue(errors.isEmpty(), "Round " + round + ": " + errors.peek());
+            assertTrue(model.isGameDrawn(), "The board should have filled up");
+            assertEquals(rows * columns, model.getPly(), "Every cell should be one move");
+
+            // No claim was lost or made twice: each cell was reported claimed by exactly one thread, for its owner
+            int[] claimedBy = new int[rows * columns];
+            for(int t = 0; t < claims.size(); t++){
+                for(int cell : claims.get(t)){
+                    assertEquals(0, claimedBy[cell]++, "Round " + round + ": cell " + cell + " was claimed twice");
+                    assertEquals(model.getPlayerByNumber(t % players), model.getCellOwner(cell / columns, cell % columns), "Round " + round + ": cell " + cell + " has the wrong owner");
+                }
+            }
+            for(int cell = 0; cell < claimedBy.length; cell++){
+                assertEquals(1, claimedBy[cell], "Round " + round + ": cell " + cell + " was never reported claimed");
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OXOSimulatorTest {
+
+    @Test
+    void testRandomGamesAddUp() throws InterruptedException {
+
+        OXOSimulator simulator = new OXOSimulator(3, 3, 3, 2);
+        OXOSimulator.Result result = simulator.run(10000, 2);
+
+        assertEquals(10000, result.getGames(), "Every game should be played exactly once");
+        assertEquals(10000, result.getWins(0) + result.getWins(1) + result.getDraws(), "Every game should end in a win or a draw");
+        // Random play on 3x3 is won by the first player roughly 58% of the time
+        assertTrue(result.getWins(0) > result.getWins(1), "First player should win more random games than the second");
+        assertTrue(result.getAverageGameLength() >= 5 && result.getAverageGameLength() <= 9, "Games on 3x3 last between 5 and 9 moves");
+    }
+
+    @Test
+    void testScriptedPlayers() throws InterruptedException {
+
+        // X always takes the top row, O the middle row, so X wins every game in 5 moves
+        OXOSimulator simulator = new OXOSimulator(3, 3, 3, 2);
+        simulator.setStrategies(id -> id % 2 == 0 ? new OXOScriptedStrategy("a1", "a2", "a3") : new OXOScriptedStrategy("b1", "b2", "b3"));
+        OXOSimulator.Result result = simulator.run(100, 3);
+
+        assertEquals(100, result.getWins(0), "X should win every scripted game");
+        assertEquals(5.0, result.getAverageGameLength(), "Every scripted game should take 5 moves");
+    }
+}
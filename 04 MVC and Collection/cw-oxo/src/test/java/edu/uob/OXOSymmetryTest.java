@@ -0,0 +1,80 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OXOSymmetryTest {
+
+    // Moves the cells one at a time, as a reference for the byte tables
+    private long applyByCell(OXOSymmetry symmetry, int transform, long cells) {
+        long result = 0;
+        for(int cell = 0; cell < 64; cell++){
+            if((cells & 1L << cell) != 0) result |= 1L << symmetry.applyToCell(transform, cell);
+        }
+        return result;
+    }
+
+    @Test
+    void testTransforms() {
+
+        // Square boards have 8 symmetries, rectangular ones 4
+        int[][] sizes = { { 3, 3 }, { 3, 4 }, { 4, 3 }, { 4, 4 }, { 5, 5 }, { 2, 7 }, { 8, 8 }, { 1, 1 } };
+        SplittableRandom random = new SplittableRandom(17);
+        for(int[] size : sizes){
+            OXOSymmetry symmetry = new OXOSymmetry(size[0], size[1]);
+            int cells = size[0] * size[1];
+            long board = cells == 64 ? -1L : (1L << cells) - 1;
+            assertEquals(size[0] == size[1] ? 8 : 4, symmetry.getNumberOfTransforms(), size[0] + "x" + size[1] + " has the wrong number of symmetries");
+            HashSet<Long> corners = new HashSet<Long>();
+            for(int transform = 0; transform < symmetry.getNumberOfTransforms(); transform++){
+                corners.add((long) symmetry.applyToCell(transform, 0) << 32 | symmetry.applyToCell(transform, size[1] - 1));
+                assertEquals(board, symmetry.apply(transform, board), "Every transform should keep the board the same shape");
+                for(int i = 0; i < 100; i++){
+                    long cellsMask = random.nextLong() & board;
+                    assertEquals(applyByCell(symmetry, transform, cellsMask), symmetry.apply(transform, cellsMask), "The byte tables should move every cell");
+                    assertEquals(cellsMask, symmetry.apply(symmetry.inverse(transform), symmetry.apply(transform, cellsMask)), "The inverse should undo the transform");
+                }
+            }
+            if(cells > 2) assertEquals(symmetry.getNumberOfTransforms(), corners.size(), "Every transform should be different");
+        }
+
+        // On 3x3, transform 7 (transpose, then flip both ways) reflects a1 into c3 and a3 into a3
+        OXOSymmetry symmetry = new OXOSymmetry(3, 3);
+        assertEquals(8, symmetry.applyToCell(7, 0), "a1 should reflect into c3");
+        assertEquals(2, symmetry.applyToCell(7, 2), "a3 should stay where it is on the other diagonal");
+        assertThrows(IllegalArgumentException.class, ()-> new OXOSymmetry(9, 9), "9x9 has more cells than a mask holds");
+    }
+
+    @Test
+    void testCanonicalForm() {
+
+        SplittableRandom random = new SplittableRandom(19);
+        for(int[] size : new int[][] { { 3, 3 }, { 3, 4 }, { 4, 4 }, { 5, 5 }, { 5, 6 } }){
+            OXOSymmetry symmetry = new OXOSymmetry(size[0], size[1]);
+            int cells = size[0] * size[1];
+            for(int i = 0; i < 500; i++){
+                long crosses = 0, noughts = 0;
+                for(int cell = 0; cell < cells; cell++){
+                    int owner = random.nextInt(3);
+                    if(owner == 1) crosses |= 1L << cell;
+                    else if(owner == 2) noughts |= 1L << cell;
+                }
+                long form = symmetry.canonicalForm(crosses, noughts);
+                int transform = OXOSymmetry.transformOf(form);
+                assertEquals(symmetry.apply(transform, crosses), OXOSymmetry.crossesOf(form), "The transform should lead to the canonical crosses");
+                assertEquals(symmetry.apply(transform, noughts), OXOSymmetry.noughtsOf(form), "The transform should lead to the canonical noughts");
+                // Every symmetric copy has the same key, and none is smaller
+                for(int other = 0; other < symmetry.getNumberOfTransforms(); other++){
+                    long otherCrosses = symmetry.apply(other, crosses), otherNoughts = symmetry.apply(other, noughts);
+                    assertEquals(OXOSymmetry.keyOf(form), OXOSymmetry.keyOf(symmetry.canonicalForm(otherCrosses, otherNoughts)), "Symmetric positions should share a key");
+                    assertTrue(otherCrosses > OXOSymmetry.crossesOf(form) || otherCrosses == OXOSymmetry.crossesOf(form) && otherNoughts >= OXOSymmetry.noughtsOf(form), "The canonical form should be the smallest copy");
+                }
+            }
+        }
+        assertThrows(IllegalStateException.class, ()-> new OXOSymmetry(6, 6).canonicalForm(1, 2), "6x6 positions do not fit a canonical form");
+    }
+}
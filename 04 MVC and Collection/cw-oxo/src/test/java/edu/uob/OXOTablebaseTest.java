@@ -0,0 +1,122 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OXOTablebaseTest {
+
+    @TempDir
+    Path directory;
+
+    private OXOTablebase build(int rows, int columns, int threshold, OXOStrategy fallback) throws IOException, InterruptedException {
+        Path path = directory.resolve(rows + "x" + columns + "k" + threshold + ".oxt");
+        new OXOTablebaseBuilder(rows, columns, threshold).build(path, 2);
+        return new OXOTablebase(path, fallback);
+    }
+
+    private OXOModel createModel(int rows, int columns, int threshold) {
+        OXOModel model = new OXOModel(rows, columns, threshold);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        return model;
+    }
+
+    @Test
+    void testNoughtsAndCrosses() throws IOException, InterruptedException, OXOMoveException {
+
+        OXOTablebase tablebase = build(3, 3, 3, null);
+        // Noughts and crosses has 765 positions once rotations and reflections are set aside
+        assertEquals(765, tablebase.getNumberOfPositions(), "Every distinct reachable position should be stored once");
+
+        OXOModel model = createModel(3, 3, 3);
+        OXOController controller = new OXOController(model);
+        int entry = tablebase.probe(model);
+        assertEquals(OXOTablebase.DRAW, OXOTablebase.outcomeOf(entry), "The empty board is a draw");
+        assertEquals(9, OXOTablebase.distanceOf(entry), "A drawn game fills the board");
+
+        controller.handleIncomingCommand("a1");
+        controller.handleIncomingCommand("b1");
+        controller.handleIncomingCommand("a2");
+        // O blocks at a3, but then X forks with b2
+        entry = tablebase.probe(model);
+        assertEquals(OXOTablebase.LOSS, OXOTablebase.outcomeOf(entry), "O cannot stop both of X's threats");
+        assertEquals(4, OXOTablebase.distanceOf(entry), "O should hold out until X's fourth move");
+        assertEquals("a3", tablebase.chooseMove(model), "O has to block the top row");
+        controller.handleIncomingCommand("b2");
+        entry = tablebase.probe(model);
+        assertEquals(OXOTablebase.WIN, OXOTablebase.outcomeOf(entry), "X to move with two in a row wins");
+        assertEquals(1, OXOTablebase.distanceOf(entry), "X wins with the next move");
+        assertEquals("a3", tablebase.chooseMove(model), "X should complete the top row");
+
+        // The same position seen in a mirror is the same entry
+        OXOModel mirrored = createModel(3, 3, 3);
+        controller = new OXOController(mirrored);
+        for(String move : new String[] { "c3", "b3", "c2", "b2" }) controller.handleIncomingCommand(move);
+        assertEquals(tablebase.probe(model), tablebase.probe(mirrored), "Symmetric positions should share an entry");
+        assertEquals("c1", tablebase.chooseMove(mirrored), "X should complete the bottom row");
+    }
+
+    @Test
+    void testPerfectPlay() throws IOException, InterruptedException, OXOMoveException {
+
+        OXOTablebase tablebase = build(3, 3, 3, null);
+        OXORandomStrategy random = new OXORandomStrategy(11);
+        for(int game = 0; game < 200; game++){
+            OXOModel model = createModel(3, 3, 3);
+            OXOController controller = new OXOController(model);
+            // Against itself every game is drawn; against random moves the table never loses
+            int perfectPlayer = game % 3 == 2 ? -1 : game % 2;
+            while(model.getWinner() == null && !model.isGameDrawn()){
+                boolean perfect = perfectPlayer < 0 || model.getCurrentPlayerNumber() == perfectPlayer;
+                controller.handleIncomingCommand((perfect ? tablebase : random).chooseMove(model));
+            }
+            if(perfectPlayer < 0) assertTrue(model.isGameDrawn(), "Game " + game + " between perfect players should be drawn");
+            else if(model.getWinner() != null) assertEquals(model.getPlayerByNumber(perfectPlayer), model.getWinner(), "Game " + game + " was lost by the table");
+        }
+    }
+
+    @Test
+    void testAgreesWithSearch() throws IOException, InterruptedException, OXOMoveException {
+
+        // A rectangular board only has four symmetries, and a threshold of 3 on 3x4 is a win for the first player
+        OXOTablebase tablebase = build(3, 4, 3, null);
+        assertEquals(OXOTablebase.WIN, OXOTablebase.outcomeOf(tablebase.probe(createModel(3, 4, 3))), "X should win 3x4 with a threshold of 3");
+        OXOSearchEngine engine = new OXOSearchEngine(5000);
+        SplittableRandom random = new SplittableRandom(7);
+        OXORandomStrategy moves = new OXORandomStrategy(13);
+        for(int position = 0; position < 100; position++){
+            OXOModel model = createModel(3, 4, 3);
+            OXOController controller = new OXOController(model);
+            int length = random.nextInt(9);
+            for(int i = 0; i < length && model.getWinner() == null && !model.isGameDrawn(); i++){
+                controller.handleIncomingCommand(moves.chooseMove(model));
+            }
+            if(model.getWinner() != null || model.isGameDrawn()) continue;
+
+            int entry = tablebase.probe(model);
+            engine.chooseMove(model);
+            int score = engine.getLastScore();
+            int expected = score > OXOSearchEngine.WIN_BOUND ? OXOTablebase.WIN : score < -OXOSearchEngine.WIN_BOUND ? OXOTablebase.LOSS : OXOTablebase.DRAW;
+            assertEquals(expected, OXOTablebase.outcomeOf(entry), "Position " + position + " should have the outcome the search found");
+            // The search stops at the first forced result it finds, which need not be the quickest win or slowest loss
+            if(expected == OXOTablebase.WIN) assertTrue(OXOTablebase.distanceOf(entry) <= OXOSearchEngine.WIN - score, "Position " + position + " should be won no later than the search found");
+            if(expected == OXOTablebase.LOSS) assertTrue(OXOTablebase.distanceOf(entry) >= OXOSearchEngine.WIN + score, "Position " + position + " should be lost no sooner than the search found");
+        }
+    }
+
+    @Test
+    void testFallsBackOutsideTheTable() throws IOException, InterruptedException {
+
+        OXOTablebase tablebase = build(3, 3, 3, new OXOScriptedStrategy("b2"));
+        OXOModel model = createModel(4, 4, 3);
+        assertFalse(tablebase.covers(model), "A 4x4 game is not in a 3x3 table");
+        assertEquals(OXOTablebase.NOT_FOUND, tablebase.probe(model), "Probing another game should find nothing");
+        assertEquals("b2", tablebase.chooseMove(model), "The fallback strategy should play games the table does not cover");
+    }
+}